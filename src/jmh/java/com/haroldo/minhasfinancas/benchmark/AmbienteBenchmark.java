@@ -0,0 +1,109 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.haroldo.minhasfinancas.MinhasfinancasApplication;
+import com.haroldo.minhasfinancas.api.arquivo.LinhaImportacao;
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//Aplicacao sem a camada web sobre o H2 em memoria do perfil test, com um usuario e volume lancamentos
+//Cada fork do JMH sobe o proprio contexto e o proprio banco
+@State(Scope.Benchmark)
+public class AmbienteBenchmark {
+
+    public static final String EMAIL = "benchmark@email.com";
+    public static final String SENHA = "senha";
+
+    private static final String[] DESCRICOES = {
+            "Supermercado", "Aluguel", "Conta de luz", "Conta de agua", "Salario",
+            "Farmacia", "Restaurante", "Combustivel", "Internet", "Academia"
+    };
+
+    @Param({"1000", "100000"})
+    public int volume;
+
+    public ConfigurableApplicationContext contexto;
+
+    public Usuario usuario;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "minhasfinancas.saldo.reconciliacao.na-inicializacao=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+
+        usuario = bean(UsuarioService.class).salvarUsuario(Usuario.builder()
+                .nome("Benchmark")
+                .email(EMAIL)
+                .senha(SENHA)
+                .build());
+
+        bean(ImportacaoLancamentoService.class).importar(usuario, gerarLancamentos(volume));
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    //Lancamentos distribuidos em 10 anos, alternando receitas e despesas
+    public static LancamentoDTO lancamento(int indice) {
+        return LancamentoDTO.builder()
+                .descricao(DESCRICOES[indice % DESCRICOES.length] + " " + indice)
+                .ano(2015 + (indice / 12) % 10)
+                .mes(1 + indice % 12)
+                .valor(BigDecimal.valueOf(10 + indice % 500))
+                .tipo(indice % 3 == 0 ? "RECEITA" : "DESPESA")
+                .status(indice % 2 == 0 ? "EFETIVADO" : "PENDENTE")
+                .build();
+    }
+
+    static Iterator<LinhaImportacao> gerarLancamentos(int quantidade) {
+
+        return new Iterator<LinhaImportacao>() {
+
+            private int indice;
+
+            @Override
+            public boolean hasNext() {
+                return indice < quantidade;
+            }
+
+            @Override
+            public LinhaImportacao next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                indice++;
+                return LinhaImportacao.valida(indice, lancamento(indice));
+            }
+
+        };
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.haroldo.minhasfinancas.MinhasfinancasApplication;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+//buscarPorDescricao no modo trigram (indice pg_trgm da V2) contra o mesmo termo no filtro do buscar paginado,
+//um like sem indice que percorre os lancamentos do usuario. Precisa de um Postgres (nao roda no H2):
+//mvn -P benchmarks verify -Djmh.args="-jvmArgs -Dspring.datasource.url=jdbc:postgresql://localhost:5432/minhasfinancas BuscaDescricao"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaDescricaoBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int volume;
+
+    private ConfigurableApplicationContext contexto;
+
+    private LancamentoService service;
+
+    private JdbcTemplate jdbc;
+
+    private Usuario usuario;
+
+    private LancamentoFilter filtroDaDescricao;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "minhasfinancas.busca-descricao.modo=trigram",
+                        "minhasfinancas.saldo.reconciliacao.na-inicializacao=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+
+        service = contexto.getBean(LancamentoService.class);
+        jdbc = contexto.getBean(JdbcTemplate.class);
+
+        usuario = contexto.getBean(UsuarioService.class).salvarUsuario(Usuario.builder()
+                .nome("Busca descricao")
+                .email("busca-descricao-" + System.nanoTime() + "@email.com")
+                .senha(AmbienteBenchmark.SENHA)
+                .build());
+
+        //Gerados no banco: a busca so le financas.lancamento, o resumo de saldo nao participa
+        jdbc.update("insert into financas.lancamento (descricao, mes, ano, valor, tipo, status, id_usuario) " +
+                "select (array['Supermercado', 'Aluguel', 'Conta de luz', 'Conta de agua', 'Salario', " +
+                "'Farmacia', 'Restaurante', 'Combustivel', 'Internet', 'Academia'])[1 + i % 10] || ' ' || i, " +
+                "1 + i % 12, 2015 + (i / 12) % 10, 10 + i % 500, " +
+                "case when i % 3 = 0 then 'RECEITA' else 'DESPESA' end, " +
+                "case when i % 2 = 0 then 'EFETIVADO' else 'PENDENTE' end, ? " +
+                "from generate_series(1, ?) i", usuario.getId(), volume);
+        jdbc.execute("analyze financas.lancamento");
+
+        filtroDaDescricao = LancamentoFilter.builder()
+                .idUsuario(usuario.getId())
+                .descricao("conta de luz")
+                .build();
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        jdbc.update("delete from financas.lancamento where id_usuario = ?", usuario.getId());
+        jdbc.update("delete from financas.saldo_usuario where id_usuario = ?", usuario.getId());
+        jdbc.update("delete from financas.usuario where id = ?", usuario.getId());
+        contexto.close();
+    }
+
+    @Benchmark
+    public Page<LancamentoResumoDTO> buscarPorDescricao() {
+        return service.buscarPorDescricao(usuario.getId(), "conta luz", PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<LancamentoResumoDTO> buscarPeloFiltro() {
+        return service.buscar(filtroDaDescricao, PageRequest.of(0, 20));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.MinhasfinancasApplication;
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.autenticacao.TokenAutenticacao;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Carga HTTP em POST /api/lancamentos (salvar) e GET /api/lancamentos (buscar) com 32 clientes simultaneos,
+//comparando a configuracao padrao com o perfil production (pool, cache de statements do driver e lotes).
+//Roda contra o Postgres de spring.datasource.url, que pode ser trocado pela linha de comando:
+//mvn -P benchmarks verify -Djmh.args="-jvmArgs -Dspring.datasource.url=jdbc:postgresql://localhost:5432/minhasfinancas CargaEndpoints"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class CargaEndpointsBenchmark {
+
+    private static final int LANCAMENTOS_INICIAIS = 10000;
+
+    @Param({"padrao", "production"})
+    public String perfil;
+
+    private ConfigurableApplicationContext contexto;
+
+    private HttpClient cliente;
+
+    private ObjectMapper objectMapper;
+
+    private URI lancamentos;
+
+    private URI buscaDoMes;
+
+    private Usuario usuario;
+
+    private String autorizacao;
+
+    private final AtomicInteger proximo = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        SpringApplicationBuilder aplicacao = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .properties(
+                        "server.port=0",
+                        "minhasfinancas.saldo.reconciliacao.na-inicializacao=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN");
+        if (!"padrao".equals(perfil))
+            aplicacao.profiles(perfil);
+        contexto = aplicacao.run();
+
+        usuario = contexto.getBean(UsuarioService.class).salvarUsuario(Usuario.builder()
+                .nome("Carga")
+                .email("carga-" + System.nanoTime() + "@email.com")
+                .senha(AmbienteBenchmark.SENHA)
+                .build());
+        contexto.getBean(ImportacaoLancamentoService.class).importar(usuario,
+                AmbienteBenchmark.gerarLancamentos(LANCAMENTOS_INICIAIS));
+
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/lancamentos";
+        lancamentos = URI.create(base);
+        buscaDoMes = URI.create(base + "?ano=2020&mes=6");
+        autorizacao = "Bearer " + contexto.getBean(TokenAutenticacao.class).emitir(usuario.getId()).getToken();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        objectMapper = contexto.getBean(ObjectMapper.class);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int salvar() throws IOException, InterruptedException {
+
+        LancamentoDTO dto = AmbienteBenchmark.lancamento(proximo.incrementAndGet());
+        dto.setUsuario(usuario.getId());
+
+        return enviar(HttpRequest.newBuilder(lancamentos)
+                .header("Content-Type", "application/json")
+                .header("Authorization", autorizacao)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(dto)))
+                .build(), 201);
+
+    }
+
+    @Benchmark
+    public int buscar() throws IOException, InterruptedException {
+        return enviar(HttpRequest.newBuilder(buscaDoMes).header("Authorization", autorizacao).GET().build(), 200);
+    }
+
+    //Uma resposta inesperada invalida a medicao em vez de contar como requisicao atendida
+    private int enviar(HttpRequest requisicao, int statusEsperado) throws IOException, InterruptedException {
+
+        HttpResponse<byte[]> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        if (resposta.statusCode() != statusEsperado)
+            throw new IllegalStateException("Status " + resposta.statusCode() + ": " + new String(resposta.body()));
+
+        return resposta.body().length;
+
+    }
+
+}
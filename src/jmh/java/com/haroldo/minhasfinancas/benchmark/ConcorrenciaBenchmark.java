@@ -0,0 +1,122 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.haroldo.minhasfinancas.MinhasfinancasApplication;
+import com.haroldo.minhasfinancas.autenticacao.TokenAutenticacao;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+//Rajadas de "concorrencia" requisicoes simultaneas de saldo e busca, com as requisicoes do Tomcat no pool
+//de plataforma ou em threads virtuais (minhasfinancas.execucao.modo). Mede o tempo ate a ultima resposta;
+//uma resposta com erro invalida a medicao. O modo virtual exige Java 21 ou superior: numa JVM anterior a
+//aplicacao nao inicia e o JMH registra a falha desse parametro em vez de repetir a medicao do plataforma.
+//Sobre o H2 do perfil test; com -Dspring.datasource.url e demais propriedades nos -jvmArgs usa outro banco
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcorrenciaBenchmark {
+
+    @Param({"plataforma", "virtual"})
+    public String modo;
+
+    @Param({"1000", "5000"})
+    public int concorrencia;
+
+    private ConfigurableApplicationContext contexto;
+
+    private HttpClient cliente;
+
+    private HttpRequest saldo;
+
+    private HttpRequest buscaDoMes;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (concorrencia * 2),
+                        "minhasfinancas.execucao.modo=" + modo,
+                        "minhasfinancas.saldo.reconciliacao.na-inicializacao=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+
+        Usuario usuario = contexto.getBean(UsuarioService.class).salvarUsuario(Usuario.builder()
+                .nome("Concorrencia")
+                .email(AmbienteBenchmark.EMAIL)
+                .senha(AmbienteBenchmark.SENHA)
+                .build());
+        contexto.getBean(ImportacaoLancamentoService.class).importar(usuario, AmbienteBenchmark.gerarLancamentos(10000));
+
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+        String autorizacao = "Bearer " + contexto.getBean(TokenAutenticacao.class).emitir(usuario.getId()).getToken();
+        saldo = HttpRequest.newBuilder(URI.create(base + "/api/usuarios/" + usuario.getId() + "/saldo"))
+                .header("Authorization", autorizacao)
+                .build();
+        buscaDoMes = HttpRequest.newBuilder(URI.create(base + "/api/lancamentos?ano=2020&mes=6"))
+                .header("Authorization", autorizacao)
+                .build();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public long saldo() {
+        return rajada(saldo);
+    }
+
+    @Benchmark
+    public long buscar() {
+        return rajada(buscaDoMes);
+    }
+
+    private long rajada(HttpRequest requisicao) {
+
+        CompletableFuture<?>[] respostas = new CompletableFuture<?>[concorrencia];
+        for (int i = 0; i < concorrencia; i++) {
+            respostas[i] = cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(resposta -> {
+                        if (resposta.statusCode() != 200)
+                            throw new IllegalStateException("Status " + resposta.statusCode());
+                    });
+        }
+
+        CompletableFuture.allOf(respostas).join();
+        return respostas.length;
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.haroldo.minhasfinancas.autenticacao.CodificadorSenhaBCrypt;
+import com.haroldo.minhasfinancas.autenticacao.VerificacaoSenha;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//Dimensiona minhasfinancas.senha.bcrypt.custo: 32 logins simultaneos conferindo a senha no executor dedicado,
+//com uma thread por nucleo como na configuracao padrao. O tempo amostrado inclui a espera na fila, entao o
+//p99 do resultado e o que o cliente sente numa rajada de logins; o custo escolhido e o maior cujo p99 fica
+//dentro do SLO de login (250 ms), medido na maquina de producao:
+//mvn -P benchmarks verify -Djmh.args="CustoSenha"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(32)
+@Fork(1)
+public class CustoSenhaBenchmark {
+
+    @Param({"8", "10", "11", "12"})
+    public int custo;
+
+    private ThreadPoolExecutor executor;
+
+    private VerificacaoSenha verificacao;
+
+    private String codificada;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(nucleos, nucleos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100));
+        verificacao = new VerificacaoSenha(new CodificadorSenhaBCrypt(custo), executor, Duration.ofMinutes(1));
+        codificada = verificacao.codificar(AmbienteBenchmark.SENHA);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public boolean conferir() {
+        return verificacao.confere(AmbienteBenchmark.SENHA, codificada);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.service.LancamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoServiceBenchmark {
+
+    private LancamentoService service;
+
+    private SaldoUsuarioRepository saldoUsuarioRepository;
+
+    private LancamentoRepository lancamentoRepository;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private LancamentoFilter filtroDoMes;
+
+    private LancamentoFilter filtroDaDescricao;
+
+    private Lancamento valido;
+
+    private int proximo;
+
+    @Setup
+    public void preparar(AmbienteBenchmark ambiente) {
+
+        service = ambiente.bean(LancamentoService.class);
+        saldoUsuarioRepository = ambiente.bean(SaldoUsuarioRepository.class);
+        lancamentoRepository = ambiente.bean(LancamentoRepository.class);
+        entityManagerFactory = ambiente.bean(EntityManagerFactory.class);
+
+        filtroDoMes = LancamentoFilter.builder()
+                .idUsuario(ambiente.usuario.getId())
+                .ano(2020)
+                .mes(6)
+                .build();
+
+        filtroDaDescricao = LancamentoFilter.builder()
+                .idUsuario(ambiente.usuario.getId())
+                .descricao("conta de luz")
+                .build();
+
+        valido = novoLancamento(ambiente, 0);
+
+    }
+
+    @Benchmark
+    public Lancamento validar() {
+        service.validar(valido);
+        return valido;
+    }
+
+    @Benchmark
+    public Lancamento salvar(AmbienteBenchmark ambiente) {
+        return service.salvar(novoLancamento(ambiente, proximo++));
+    }
+
+    @Benchmark
+    public List<LancamentoResumoDTO> buscar() {
+        return service.buscar(filtroDoMes);
+    }
+
+    @Benchmark
+    public Page<LancamentoResumoDTO> buscarPorDescricao(AmbienteBenchmark ambiente) {
+        return service.buscarPorDescricao(ambiente.usuario.getId(), "conta luz", PageRequest.of(0, 20));
+    }
+
+    //Referencia do buscarPorDescricao: o mesmo termo no filtro do buscar paginado. No H2 a busca usa o modo
+    //memoria; o modo trigram do Postgres, com ate 1 milhao de lancamentos, e medido pelo BuscaDescricaoBenchmark
+    @Benchmark
+    public Page<LancamentoResumoDTO> buscarPeloFiltroDeDescricao() {
+        return service.buscar(filtroDaDescricao, PageRequest.of(0, 20));
+    }
+
+    //Passa pelo cache de saldos, como nas requisicoes reais: mede o caminho usado pela API
+    @Benchmark
+    public Optional<SaldoDTO> obterSaldoPorUsuario(AmbienteBenchmark ambiente) {
+        return service.obterResumoSaldoPorUsuario(ambiente.usuario.getId());
+    }
+
+    //A consulta por tras do cache, sobre o resumo de saldos: o custo de cada falta no cache (o perfil test
+    //tambem desliga o cache de consultas do Hibernate)
+    @Benchmark
+    public Optional<SaldoDTO> obterSaldoSemCache(AmbienteBenchmark ambiente) {
+        return saldoUsuarioRepository.obterSaldoUsuario(ambiente.usuario.getId());
+    }
+
+    //Receitas e despesas numa unica soma condicional sobre os lancamentos, sem o resumo de saldos
+    @Benchmark
+    public Optional<SaldoDTO> obterSaldoAgregandoOsLancamentos(AmbienteBenchmark ambiente) {
+        return lancamentoRepository.obterSaldoUsuario(ambiente.usuario.getId());
+    }
+
+    //Caminho antigo, a referencia dos demais: o usuario e depois uma soma dos lancamentos por tipo
+    @Benchmark
+    public BigDecimal obterSaldoEmDuasConsultas(AmbienteBenchmark ambiente) {
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+
+            if (entityManager.find(Usuario.class, ambiente.usuario.getId()) == null)
+                return null;
+
+            BigDecimal receitas = somarPorTipo(entityManager, ambiente.usuario.getId(), TipoLancamento.RECEITA);
+            BigDecimal despesas = somarPorTipo(entityManager, ambiente.usuario.getId(), TipoLancamento.DESPESA);
+
+            return (receitas == null ? BigDecimal.ZERO : receitas).subtract(despesas == null ? BigDecimal.ZERO : despesas);
+
+        } finally {
+            entityManager.close();
+        }
+
+    }
+
+    private BigDecimal somarPorTipo(EntityManager entityManager, Long idUsuario, TipoLancamento tipo) {
+        return entityManager.createQuery("select sum(l.valor) from Lancamento l join l.usuario u " +
+                        "where u.id = :idUsuario and l.tipo = :tipo group by u", BigDecimal.class)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("tipo", tipo)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Lancamento novoLancamento(AmbienteBenchmark ambiente, int indice) {
+        return Lancamento.builder()
+                .descricao("Lancamento " + indice)
+                .ano(2020)
+                .mes(1 + indice % 12)
+                .valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.DESPESA)
+                .status(StatusLancamento.PENDENTE)
+                .usuario(ambiente.usuario)
+                .build();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.haroldo.minhasfinancas.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+//Saldo do ano e busca do mes sobre financas.lancamento simples e particionada por ano, como na migration
+//db/particionamento/postgresql/V6. Precisa de um Postgres (nao roda no H2):
+//mvn -P benchmarks verify -Djmh.args="-jvmArgs -Dminhasfinancas.benchmark.postgres.url=jdbc:postgresql://localhost:5432/minhasfinancas Particionamento"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticionamentoBenchmark {
+
+    private static final int ANO_INICIAL = 2016;
+    private static final int ANOS = 10;
+    private static final int USUARIOS = 100;
+
+    @Param({"simples", "particionado"})
+    public String layout;
+
+    @Param({"100000", "1000000"})
+    public int volume;
+
+    private Connection conexao;
+
+    private PreparedStatement saldoDoAno;
+
+    private PreparedStatement buscaDoMes;
+
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+
+        conexao = DriverManager.getConnection(
+                System.getProperty("minhasfinancas.benchmark.postgres.url", "jdbc:postgresql://localhost:5432/minhasfinancas"),
+                System.getProperty("minhasfinancas.benchmark.postgres.usuario", "postgres"),
+                System.getProperty("minhasfinancas.benchmark.postgres.senha", "postgres"));
+
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("drop schema if exists benchmark_particionamento cascade");
+            ddl.execute("create schema benchmark_particionamento");
+            ddl.execute(criarTabela());
+            if (particionado()) {
+                for (int ano = ANO_INICIAL; ano < ANO_INICIAL + ANOS; ano++) {
+                    ddl.execute("create table benchmark_particionamento.lancamento_" + ano +
+                            " partition of benchmark_particionamento.lancamento for values from (" + ano + ") to (" + (ano + 1) + ")");
+                }
+            }
+            ddl.execute("insert into benchmark_particionamento.lancamento " +
+                    "select i, 'Lancamento ' || i, 1 + (i / " + ANOS + ") % 12, " + ANO_INICIAL + " + i % " + ANOS + ", " +
+                    "10 + i % 500, case when i % 2 = 0 then 'RECEITA' else 'DESPESA' end, 'EFETIVADO', 1 + i % " + USUARIOS + " " +
+                    "from generate_series(1, " + volume + ") i");
+            ddl.execute("create index on benchmark_particionamento.lancamento (id_usuario, ano, mes, id)");
+            ddl.execute("analyze benchmark_particionamento.lancamento");
+        }
+
+        saldoDoAno = conexao.prepareStatement("select " +
+                "sum(case when tipo = 'RECEITA' then valor else 0 end), " +
+                "sum(case when tipo = 'DESPESA' then valor else 0 end) " +
+                "from benchmark_particionamento.lancamento where id_usuario = ? and ano = ?");
+        buscaDoMes = conexao.prepareStatement("select id, descricao, mes, ano, valor, tipo, status " +
+                "from benchmark_particionamento.lancamento where id_usuario = ? and ano = ? and mes = ? order by id");
+
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        try (Statement ddl = conexao.createStatement()) {
+            ddl.execute("drop schema benchmark_particionamento cascade");
+        }
+        conexao.close();
+    }
+
+    //Sempre o ultimo ano, o caso mais comum
+    @Benchmark
+    public void saldoDoAno(Blackhole blackhole) throws SQLException {
+        saldoDoAno.setLong(1, proximoUsuario());
+        saldoDoAno.setInt(2, ANO_INICIAL + ANOS - 1);
+        consumir(saldoDoAno, blackhole);
+    }
+
+    @Benchmark
+    public void buscaDoMes(Blackhole blackhole) throws SQLException {
+        buscaDoMes.setLong(1, proximoUsuario());
+        buscaDoMes.setInt(2, ANO_INICIAL + ANOS - 1);
+        buscaDoMes.setInt(3, 6);
+        consumir(buscaDoMes, blackhole);
+    }
+
+    private boolean particionado() {
+        return "particionado".equals(layout);
+    }
+
+    private String criarTabela() {
+        return "create table benchmark_particionamento.lancamento (" +
+                "id bigint not null, descricao varchar(100) not null, mes integer not null, ano integer not null, " +
+                "valor numeric(16,2) not null, tipo varchar(20) not null, status varchar(20) not null, id_usuario bigint, " +
+                (particionado() ? "primary key (id, ano)) partition by range (ano)" : "primary key (id))");
+    }
+
+    private long proximoUsuario() {
+        proximo = proximo % USUARIOS + 1;
+        return proximo;
+    }
+
+    private static void consumir(PreparedStatement consulta, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultado = consulta.executeQuery()) {
+            while (resultado.next())
+                blackhole.consume(resultado.getObject(1));
+        }
+    }
+
+}
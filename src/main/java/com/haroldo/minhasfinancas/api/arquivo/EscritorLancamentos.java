@@ -0,0 +1,10 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+
+import java.io.Flushable;
+import java.util.function.Consumer;
+
+//Escreve os lancamentos na saida conforme chegam, sem acumular a lista
+public interface EscritorLancamentos extends Consumer<LancamentoResumoDTO>, Flushable {
+}
@@ -0,0 +1,79 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+//CSV separado por virgula com as mesmas colunas aceitas pelo LeitorLancamentosCsv
+public class EscritorLancamentosCsv implements EscritorLancamentos {
+
+    private static final String CABECALHO = "id,descricao,mes,ano,valor,tipo,status,dataCadastro";
+
+    private final Writer saida;
+
+    public EscritorLancamentosCsv(OutputStream saida) {
+
+        this.saida = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        escrever(CABECALHO);
+
+    }
+
+    @Override
+    public void accept(LancamentoResumoDTO lancamento) {
+
+        escrever(String.join(",",
+                texto(lancamento.getId()),
+                campo(lancamento.getDescricao()),
+                texto(lancamento.getMes()),
+                texto(lancamento.getAno()),
+                lancamento.getValor() == null ? "" : lancamento.getValor().toPlainString(),
+                texto(lancamento.getTipo()),
+                texto(lancamento.getStatus()),
+                texto(lancamento.getDataCadastro())));
+
+    }
+
+    @Override
+    public void flush() throws IOException {
+        saida.flush();
+    }
+
+    private void escrever(String linha) {
+        try {
+            saida.write(linha);
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String texto(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    //O LeitorLancamentosCsv le uma linha por lancamento: quebras de linha na descricao viram espacos.
+    //Texto iniciado por =, +, - ou @ seria interpretado como formula pela planilha e recebe um apostrofo
+    private String campo(String valor) {
+
+        if (valor == null)
+            return "";
+
+        valor = valor.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+
+        if (!valor.isEmpty() && "=+-@".indexOf(valor.charAt(0)) >= 0)
+            valor = "'" + valor;
+
+        if (valor.indexOf(',') < 0 && valor.indexOf(';') < 0 && valor.indexOf('"') < 0)
+            return valor;
+
+        return '"' + valor.replace("\"", "\"\"") + '"';
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+//Um objeto JSON por linha (NDJSON), no mesmo formato do LancamentoResumoDTO devolvido pela busca
+public class EscritorLancamentosNdjson implements EscritorLancamentos {
+
+    private final JsonGenerator saida;
+
+    public EscritorLancamentosNdjson(ObjectMapper mapper, OutputStream saida) {
+
+        try {
+            this.saida = mapper.getFactory().createGenerator(saida)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    @Override
+    public void accept(LancamentoResumoDTO lancamento) {
+        try {
+            saida.writeObject(lancamento);
+            saida.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        saida.flush();
+    }
+
+}
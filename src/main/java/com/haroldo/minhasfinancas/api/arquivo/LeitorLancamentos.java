@@ -0,0 +1,8 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+//Le os lancamentos de um arquivo sob demanda, uma linha por vez
+public interface LeitorLancamentos extends Iterator<LinhaImportacao>, Closeable {
+}
@@ -0,0 +1,166 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+//Le um CSV com cabecalho (descricao, mes, ano, valor, tipo e opcionalmente status) linha por linha
+//O separador (virgula ou ponto e virgula) e identificado pelo cabecalho, campos podem vir entre aspas
+public class LeitorLancamentosCsv implements LeitorLancamentos {
+
+    private final BufferedReader leitor;
+    private final char separador;
+    private final Map<String, Integer> colunas = new HashMap<>();
+    //Numero da ultima linha lida do arquivo, com o cabecalho na linha 1
+    private int numero = 0;
+    private String proximaLinha;
+
+    public LeitorLancamentosCsv(InputStream entrada) {
+
+        this.leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+
+        String cabecalho = lerLinha();
+
+        if (cabecalho == null) {
+            throw new RegraNegocioException("O arquivo CSV está vazio.");
+        }
+
+        if (cabecalho.startsWith("\uFEFF"))
+            cabecalho = cabecalho.substring(1);
+
+        this.separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+
+        List<String> nomes = separar(cabecalho);
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        for (String obrigatoria : new String[]{"descricao", "mes", "ano", "valor", "tipo"}) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new RegraNegocioException("O cabeçalho do CSV não possui a coluna " + obrigatoria + ".");
+            }
+        }
+
+        this.proximaLinha = proximaLinhaPreenchida();
+
+    }
+
+    @Override
+    public boolean hasNext() {
+        return proximaLinha != null;
+    }
+
+    @Override
+    public LinhaImportacao next() {
+
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        String linha = proximaLinha;
+        int numeroDaLinha = numero;
+        proximaLinha = proximaLinhaPreenchida();
+
+        try {
+
+            List<String> campos = separar(linha);
+
+            LancamentoDTO lancamento = LancamentoDTO.builder()
+                    .descricao(campo(campos, "descricao"))
+                    .mes(inteiro(campo(campos, "mes")))
+                    .ano(inteiro(campo(campos, "ano")))
+                    .valor(campo(campos, "valor") == null ? null : new BigDecimal(campo(campos, "valor").replace(',', '.')))
+                    .tipo(campo(campos, "tipo"))
+                    .status(campo(campos, "status"))
+                    .build();
+
+            return LinhaImportacao.valida(numeroDaLinha, lancamento);
+
+        } catch (NumberFormatException e) {
+
+            return LinhaImportacao.comErro(numeroDaLinha, "Valor numérico inválido.");
+
+        }
+
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    private String proximaLinhaPreenchida() {
+        String linha;
+        do {
+            linha = lerLinha();
+        } while (linha != null && linha.trim().isEmpty());
+        return linha;
+    }
+
+    private String lerLinha() {
+        try {
+            String linha = leitor.readLine();
+            if (linha != null)
+                numero++;
+            return linha;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String campo(List<String> campos, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= campos.size())
+            return null;
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private Integer inteiro(String valor) {
+        return valor == null ? null : Integer.valueOf(valor);
+    }
+
+    private List<String> separar(String linha) {
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+
+            char c = linha.charAt(i);
+
+            if (c == '"') {
+                if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else {
+                    entreAspas = !entreAspas;
+                }
+            } else if (c == separador && !entreAspas) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+
+        }
+
+        campos.add(atual.toString());
+        return campos;
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+//Le um array JSON de LancamentoDTO elemento por elemento, sem carregar o array inteiro
+public class LeitorLancamentosJson implements LeitorLancamentos {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private int numero;
+    private JsonToken proximo;
+
+    public LeitorLancamentosJson(ObjectMapper mapper, InputStream entrada) {
+
+        this.mapper = mapper;
+
+        try {
+
+            this.parser = mapper.getFactory().createParser(entrada);
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RegraNegocioException("O arquivo JSON deve conter um array de lançamentos.");
+            }
+
+            this.proximo = parser.nextToken();
+
+        } catch (JsonProcessingException e) {
+            throw new RegraNegocioException("JSON inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    @Override
+    public boolean hasNext() {
+        return proximo != null && proximo != JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public LinhaImportacao next() {
+
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        numero++;
+
+        try {
+
+            //Erro de sintaxe interrompe a leitura, erro de conversao invalida apenas o elemento
+            JsonNode elemento = mapper.readTree(parser);
+            proximo = parser.nextToken();
+
+            try {
+                return LinhaImportacao.valida(numero, mapper.treeToValue(elemento, LancamentoDTO.class));
+            } catch (JsonProcessingException e) {
+                return LinhaImportacao.comErro(numero, "Lançamento inválido: " + e.getOriginalMessage());
+            }
+
+        } catch (JsonProcessingException e) {
+            throw new RegraNegocioException("JSON inválido no lançamento " + numero + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.haroldo.minhasfinancas.api.arquivo;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Uma linha lida do arquivo de importacao: o lancamento ou o erro de leitura
+@Getter
+@AllArgsConstructor
+public class LinhaImportacao {
+
+    private final int numero;
+    private final LancamentoDTO lancamento;
+    private final String erro;
+
+    public static LinhaImportacao valida(int numero, LancamentoDTO lancamento) {
+        return new LinhaImportacao(numero, lancamento, null);
+    }
+
+    public static LinhaImportacao comErro(int numero, String erro) {
+        return new LinhaImportacao(numero, null, erro);
+    }
+
+}
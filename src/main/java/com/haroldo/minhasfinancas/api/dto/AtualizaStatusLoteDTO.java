@@ -0,0 +1,24 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//Lancamentos do usuario pelos ids ou, sem ids, pelo filtro ano, mes e tipo
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizaStatusLoteDTO {
+
+    private Long usuario;
+    private List<Long> ids;
+    private Integer ano;
+    private Integer mes;
+    private String tipo;
+    private String status;
+
+}
@@ -0,0 +1,24 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+@ToString
+public class DivergenciaSaldoDTO {
+
+    private Long idUsuario;
+    private Integer ano;
+    private Integer mes;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private BigDecimal valorRegistrado;
+    private BigDecimal valorCalculado;
+
+}
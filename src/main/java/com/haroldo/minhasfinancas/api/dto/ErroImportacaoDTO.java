@@ -0,0 +1,13 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+
+    private int linha;
+    private String mensagem;
+
+}
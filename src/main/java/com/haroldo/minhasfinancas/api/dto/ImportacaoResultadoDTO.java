@@ -0,0 +1,18 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class ImportacaoResultadoDTO {
+
+    private int linhasLidas;
+    private int linhasImportadas;
+    private List<ErroImportacaoDTO> erros;
+    private long tempoMs;
+    private long linhasPorSegundo;
+
+}
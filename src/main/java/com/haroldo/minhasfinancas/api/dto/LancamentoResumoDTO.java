@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Colunas da listagem de lancamentos, com o id do usuario no lugar da entidade
+//A ordem do construtor e usada pelas consultas do LancamentoRepository (select new / construct)
+@Getter
+@AllArgsConstructor
+public class LancamentoResumoDTO {
+
+    private Long id;
+    private String descricao;
+    private Integer mes;
+    private Integer ano;
+    private BigDecimal valor;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private Long usuarioId;
+    private LocalDate dataCadastro;
+    private Long versao;
+
+    public static LancamentoResumoDTO de(Lancamento lancamento) {
+        return new LancamentoResumoDTO(
+                lancamento.getId(),
+                lancamento.getDescricao(),
+                lancamento.getMes(),
+                lancamento.getAno(),
+                lancamento.getValor(),
+                lancamento.getTipo(),
+                lancamento.getStatus(),
+                lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId(),
+                lancamento.getDataCadastro(),
+                lancamento.getVersao());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class PaginaCursorDTO<T> {
+
+    private List<T> conteudo;
+    private int tamanho;
+    private boolean possuiProximo;
+    //Token a ser enviado no parametro cursor para obter a proxima pagina
+    private String proximoCursor;
+
+}
@@ -0,0 +1,22 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//Total de um mes para um tipo e status, a ordem do construtor e usada pela consulta agrupada
+@Getter
+@AllArgsConstructor
+public class RelatorioItemDTO {
+
+    private Integer ano;
+    private Integer mes;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private BigDecimal total;
+    private Long quantidade;
+
+}
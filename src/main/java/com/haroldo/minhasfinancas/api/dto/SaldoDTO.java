@@ -0,0 +1,21 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+public class SaldoDTO {
+
+    private final BigDecimal receitas;
+    private final BigDecimal despesas;
+    private final BigDecimal saldo;
+
+    //Usado pela consulta agregada do repository (select new ...)
+    public SaldoDTO(BigDecimal receitas, BigDecimal despesas) {
+        this.receitas = receitas == null ? BigDecimal.ZERO : receitas;
+        this.despesas = despesas == null ? BigDecimal.ZERO : despesas;
+        this.saldo = this.receitas.subtract(this.despesas);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.haroldo.minhasfinancas.api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+//Resposta do login: o token segue no header Authorization (Bearer) das chamadas seguintes
+@Getter
+@Builder
+public class UsuarioAutenticadoDTO {
+
+    private Long id;
+    private String nome;
+    private String email;
+    private String token;
+    private Instant expiraEm;
+
+}
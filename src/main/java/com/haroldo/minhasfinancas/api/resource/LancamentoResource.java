@@ -1,21 +1,50 @@
 package com.haroldo.minhasfinancas.api.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.api.arquivo.EscritorLancamentos;
+import com.haroldo.minhasfinancas.api.arquivo.EscritorLancamentosCsv;
+import com.haroldo.minhasfinancas.api.arquivo.EscritorLancamentosNdjson;
+import com.haroldo.minhasfinancas.api.arquivo.LeitorLancamentos;
+import com.haroldo.minhasfinancas.api.arquivo.LeitorLancamentosCsv;
+import com.haroldo.minhasfinancas.api.arquivo.LeitorLancamentosJson;
 import com.haroldo.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.haroldo.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.haroldo.minhasfinancas.api.dto.ImportacaoResultadoDTO;
 import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.PaginaCursorDTO;
+import com.haroldo.minhasfinancas.autenticacao.AutenticacaoFilter;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.metricas.ContadorExcecoes;
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
 import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
 import com.haroldo.minhasfinancas.service.LancamentoService;
 import com.haroldo.minhasfinancas.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/lancamentos")
@@ -24,13 +53,20 @@ public class LancamentoResource {
 
     private final LancamentoService service;
     private final UsuarioService usuarioService;
+    private final ImportacaoLancamentoService importacaoService;
+    private final ObjectMapper objectMapper;
+
+    private static final String USUARIO_NAO_ENCONTRADO_NA_CONSULTA = "Não foi possível realizar a consulta. Usuário não encontrato para o Id informado.";
 
     //POST
     @PostMapping
-    public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
+    public ResponseEntity salvar(@RequestBody LancamentoDTO dto,
+                                 @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
 
         try {
 
+            dto.setUsuario(usuarioDaRequisicao(dto.getUsuario(), autenticado));
+
             Lancamento entidade = converter(dto);
             entidade = service.salvar(entidade);
 
@@ -38,100 +74,392 @@ public class LancamentoResource {
 
         } catch (RegraNegocioException e) {
 
+            ContadorExcecoes.contar(e);
             return ResponseEntity.badRequest().body(e.getMessage());
 
         }
 
     }
 
-    //PUT precisa de ID
+    //PUT precisa de ID; com If-Match so grava se a versao ainda for a do ETag. O lancamento e lido uma unica
+    //vez, pelo service, na mesma transacao do update
     @PutMapping("{id}")
-    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
 
-        return service.opterPorId(id).map(entidade -> {
+        dto.setUsuario(usuarioDaRequisicao(dto.getUsuario(), autenticado));
 
-            try {
+        try {
 
-                Lancamento lancamento = converter(dto);
-                lancamento.setId(entidade.getId());
-                service.atualizar(lancamento);
-                return ResponseEntity.ok(lancamento);
+            Lancamento lancamento = converter(dto);
+            lancamento.setId(id);
+            lancamento.setVersao(VersaoHttp.versaoEsperada(ifMatch));
 
-            } catch (RegraNegocioException e) {
+            return service.atualizar(lancamento, autenticado)
+                    .map(salvo -> {
+                        lancamento.setVersao(salvo.getVersao());
+                        return ResponseEntity.ok().eTag(VersaoHttp.etag(lancamento.getVersao())).body((Object) lancamento);
+                    })
+                    .orElseGet( () -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
 
-                return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RegraNegocioException e) {
 
-            }
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
 
-        }).orElseGet( () -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+        } catch (OptimisticLockingFailureException e) {
+
+            return conflitoDeVersao(ifMatch);
+
+        }
 
     }
 
+    //Um update direto pelo id, sem consultar o lancamento antes
     @PutMapping("{id}/atualiza-status")
-    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
+    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
+
+        if (dto.getStatus() == null)
+            return ResponseEntity.badRequest().body("Informe um Status.");
 
-        return service.opterPorId(id).map(entidade -> {
+        try {
+
+            StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+
+            if (service.atualizarStatusPorId(id, autenticado, VersaoHttp.versaoEsperada(ifMatch), statusSelecionado) == 0)
+                return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND);
+
+            return new ResponseEntity(HttpStatus.NO_CONTENT);
 
-            try {
+        } catch (IllegalArgumentException e) {
 
-                StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
 
-                if (statusSelecionado == null) {
-                    return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-                }
+        } catch (OptimisticLockingFailureException e) {
 
-                entidade.setStatus(statusSelecionado);
-                service.atualizar(entidade);
-                return ResponseEntity.ok(entidade);
-            } catch (RegraNegocioException e) {
+            return conflitoDeVersao(ifMatch);
 
-                return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ConcurrencyFailureException e) {
 
-            }
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
 
-        }).orElseGet( () -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+        }
 
     }
 
-    //DELETE
+    //PUT em lote: um unico update para os ids informados ou, sem ids, para o filtro ano, mes e tipo.
+    //Retorna a quantidade de lancamentos que mudaram de status
+    @PutMapping("atualiza-status")
+    public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto,
+                                                @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
+
+        dto.setUsuario(usuarioDaRequisicao(dto.getUsuario(), autenticado));
+
+        if (dto.getStatus() == null)
+            return ResponseEntity.badRequest().body("Informe um Status.");
+
+        try {
+
+            StatusLancamento status = StatusLancamento.valueOf(dto.getStatus());
+
+            if (dto.getIds() != null && !dto.getIds().isEmpty())
+                return ResponseEntity.ok(service.atualizarStatus(dto.getUsuario(), dto.getIds(), status));
+
+            if (dto.getAno() == null)
+                return ResponseEntity.badRequest().body("Informe os lançamentos ou o ano.");
+
+            LancamentoFilter filtro = LancamentoFilter.builder()
+                    .idUsuario(dto.getUsuario())
+                    .ano(dto.getAno())
+                    .mes(dto.getMes())
+                    .tipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()))
+                    .build();
+
+            return ResponseEntity.ok(service.atualizarStatus(filtro, status));
+
+        } catch (IllegalArgumentException e) {
+
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status e um tipo válidos.");
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (ConcurrencyFailureException e) {
+
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+
+        }
+
+    }
+
+    //DELETE direto pelo id, sem consultar o lancamento antes
     @DeleteMapping("{id}")
-    public ResponseEntity deletar(@PathVariable("id") Long id) {
+    public ResponseEntity deletar(@PathVariable("id") Long id,
+                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                  @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
 
-        return service.opterPorId(id).map(entidade -> {
+        try {
+
+            if (service.deletarPorId(id, autenticado, VersaoHttp.versaoEsperada(ifMatch)) == 0)
+                return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND);
 
-            service.deletar(entidade);
             return new ResponseEntity(HttpStatus.NO_CONTENT);
 
-        }).orElseGet( () -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+        } catch (OptimisticLockingFailureException e) {
+
+            return conflitoDeVersao(ifMatch);
+
+        } catch (ConcurrencyFailureException e) {
+
+            return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+
+        }
 
     }
 
-    //GET
+    //GET: o ETag e a versao do lancamento, um If-None-Match igual responde 304 sem corpo
+    @GetMapping("{id}")
+    public ResponseEntity obterPorId(@PathVariable("id") Long id,
+                                     @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
+
+        return service.obterResumoPorId(id)
+                .filter(lancamento -> autenticado == null || autenticado.equals(lancamento.getUsuarioId()))
+                .map(lancamento -> ResponseEntity.ok().eTag(VersaoHttp.etag(lancamento.getVersao())).body((Object) lancamento))
+                .orElseGet( () -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND));
+
+    }
+
+    //GET: filtros opcionais descricao, mes, ano, anoInicial, mesInicial, anoFinal, mesFinal,
+    //tipo, status, valorMinimo e valorMaximo
     @GetMapping
-    public ResponseEntity buscar(
-            @RequestParam(value = "descricao", required = false) String descricao,
-            @RequestParam(value = "mes", required = false) Integer mes,
-            @RequestParam(value = "ano", required = false) Integer ano,
-            @RequestParam("usuario") Long idUsuario) {
-
-        Lancamento lancamentoFiltro = new Lancamento();
-        lancamentoFiltro.setDescricao(descricao);
-        lancamentoFiltro.setMes(mes);
-        lancamentoFiltro.setAno(ano);
-
-        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
-
-        if (usuario.isEmpty()) {
-            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrato para o Id informado.");
-        } else {
-            lancamentoFiltro.setUsuario(usuario.get());
-        }
+    public ResponseEntity buscar(LancamentoFilter filtro, @RequestParam(value = "usuario", required = false) Long idUsuario,
+                                 @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+                                 WebRequest request) {
+
+        idUsuario = usuarioDaRequisicao(idUsuario, autenticado);
 
-        List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+        if (!usuarioExiste(idUsuario, autenticado))
+            return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_NA_CONSULTA);
+
+        if (naoModificado(idUsuario, request))
+            return null;
+
+        filtro.setIdUsuario(idUsuario);
+        List<LancamentoResumoDTO> lancamentos = service.buscar(filtro);
 
         return ResponseEntity.ok(lancamentos);
     }
 
+    //GET paginado: ?page=0&size=20&sort=ano,desc
+    @GetMapping(params = "page")
+    public ResponseEntity buscarPaginado(LancamentoFilter filtro, @RequestParam(value = "usuario", required = false) Long idUsuario,
+                                         @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+                                         Pageable pageable, WebRequest request) {
+
+        idUsuario = usuarioDaRequisicao(idUsuario, autenticado);
+
+        if (!usuarioExiste(idUsuario, autenticado))
+            return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_NA_CONSULTA);
+
+        if (naoModificado(idUsuario, request))
+            return null;
+
+        try {
+
+            filtro.setIdUsuario(idUsuario);
+            Page<LancamentoResumoDTO> lancamentos = service.buscar(filtro, pageable);
+
+            return ResponseEntity.ok(lancamentos);
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        }
+    }
+
+    //GET paginado por chave (ano, mes, id): o proximoCursor da resposta e enviado no parametro cursor
+    @GetMapping("cursor")
+    public ResponseEntity buscarPorCursor(
+            LancamentoFilter filtro,
+            @RequestParam(value = "usuario", required = false) Long idUsuario,
+            @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int tamanho,
+            WebRequest request) {
+
+        idUsuario = usuarioDaRequisicao(idUsuario, autenticado);
+
+        if (!usuarioExiste(idUsuario, autenticado))
+            return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_NA_CONSULTA);
+
+        if (naoModificado(idUsuario, request))
+            return null;
+
+        try {
+
+            filtro.setIdUsuario(idUsuario);
+            CursorLancamento posicao = cursor == null ? null : CursorLancamento.decodificar(cursor);
+            PaginaCursorDTO<LancamentoResumoDTO> pagina = service.buscar(filtro, posicao, tamanho);
+
+            return ResponseEntity.ok(pagina);
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        }
+    }
+
+    //GET busca textual na descricao, ordenada por relevancia: ?usuario=1&termo=mercado&page=0&size=20
+    @GetMapping("descricao")
+    public ResponseEntity buscarPorDescricao(
+            @RequestParam(value = "usuario", required = false) Long idUsuario,
+            @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+            @RequestParam("termo") String termo,
+            Pageable pageable) {
+
+        idUsuario = usuarioDaRequisicao(idUsuario, autenticado);
+
+        if (!usuarioExiste(idUsuario, autenticado))
+            return ResponseEntity.badRequest().body(USUARIO_NAO_ENCONTRADO_NA_CONSULTA);
+
+        try {
+
+            Page<LancamentoResumoDTO> lancamentos = service.buscarPorDescricao(idUsuario, termo, pageable);
+
+            return ResponseEntity.ok(lancamentos);
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        }
+    }
+
+    //GET exportacao com os mesmos filtros da busca: ?usuario=1&formato=csv (ou ndjson)
+    //As linhas sao escritas na resposta conforme sao lidas do banco
+    @GetMapping("exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            LancamentoFilter filtro,
+            @RequestParam(value = "usuario", required = false) Long idUsuario,
+            @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+            @RequestParam(value = "formato", defaultValue = "csv") String formato) {
+
+        idUsuario = usuarioDaRequisicao(idUsuario, autenticado);
+
+        if (!usuarioExiste(idUsuario, autenticado))
+            return erroExportacao(USUARIO_NAO_ENCONTRADO_NA_CONSULTA);
+
+        boolean csv = "csv".equalsIgnoreCase(formato);
+
+        if (!csv && !"ndjson".equalsIgnoreCase(formato))
+            return erroExportacao("Formato de exportação inválido, utilize csv ou ndjson.");
+
+        filtro.setIdUsuario(idUsuario);
+
+        StreamingResponseBody corpo = saida -> {
+            EscritorLancamentos escritor = csv ? new EscritorLancamentosCsv(saida) : new EscritorLancamentosNdjson(objectMapper, saida);
+            service.exportar(filtro, escritor);
+            escritor.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos." + (csv ? "csv" : "ndjson") + "\"")
+                .body(corpo);
+
+    }
+
+    //O tipo de retorno precisa ser StreamingResponseBody, a mensagem de erro segue no mesmo formato
+    private ResponseEntity<StreamingResponseBody> erroExportacao(String mensagem) {
+        return ResponseEntity.badRequest()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    //POST importacao em massa: array JSON de lancamentos ou CSV com cabecalho
+    //descricao;mes;ano;valor;tipo;status, lido sob demanda e gravado em lotes
+    @PostMapping(value = "importacao", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity importarJson(@RequestParam(value = "usuario", required = false) Long idUsuario,
+                                       @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+                                       InputStream entrada) throws IOException {
+        return importar(usuarioDaRequisicao(idUsuario, autenticado), () -> new LeitorLancamentosJson(objectMapper, entrada));
+    }
+
+    @PostMapping(value = "importacao", consumes = "text/csv")
+    public ResponseEntity importarCsv(@RequestParam(value = "usuario", required = false) Long idUsuario,
+                                      @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado,
+                                      InputStream entrada) throws IOException {
+        return importar(usuarioDaRequisicao(idUsuario, autenticado), () -> new LeitorLancamentosCsv(entrada));
+    }
+
+    private ResponseEntity importar(Long idUsuario, Supplier<LeitorLancamentos> abrirLeitor) throws IOException {
+
+        Optional<Usuario> usuario = idUsuario == null ? Optional.empty() : usuarioService.obterPorId(idUsuario);
+
+        if (!usuario.isPresent())
+            return ResponseEntity.badRequest().body("Não foi possível realizar a importação. Usuário não encontrato para o Id informado.");
+
+        try (LeitorLancamentos leitor = abrirLeitor.get()) {
+
+            ImportacaoResultadoDTO resultado = importacaoService.importar(usuario.get(), leitor);
+
+            return ResponseEntity.ok(resultado);
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        }
+
+    }
+
+    //Com token de autenticacao (veja AutenticacaoFilter) o usuario e o do token, ja verificado em memoria: o
+    //parametro usuario passa a ser opcional e, se enviado, precisa ser o mesmo do token
+    private static Long usuarioDaRequisicao(Long idUsuario, Long autenticado) {
+
+        if (autenticado == null)
+            return idUsuario;
+
+        if (idUsuario != null && !idUsuario.equals(autenticado))
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "O usuário informado não é o do token de autenticação.");
+
+        return autenticado;
+
+    }
+
+    //O usuario do token ja foi verificado pelo filtro de autenticacao; sem token o id informado e consultado
+    private boolean usuarioExiste(Long idUsuario, Long autenticado) {
+        return autenticado != null || idUsuario != null && usuarioService.obterPorId(idUsuario).isPresent();
+    }
+
+    //A versao dos lancamentos do usuario muda a cada escrita: com o mesmo If-None-Match a listagem nao e
+    //consultada e a resposta e 304 (o retorno nulo indica ao Spring que a resposta ja foi tratada)
+    private boolean naoModificado(Long idUsuario, WebRequest request) {
+        return request.checkNotModified(VersaoHttp.etag(service.obterVersaoLancamentos(idUsuario)));
+    }
+
+    //412 quando o If-Match nao corresponde; sem If-Match, outra gravacao entre a leitura e o update e um 409
+    private ResponseEntity conflitoDeVersao(String ifMatch) {
+        HttpStatus status = ifMatch == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+        return new ResponseEntity("O lançamento foi alterado por outra requisição, obtenha a versão atual.", status);
+    }
+
     private Lancamento converter(LancamentoDTO dto) {
         Lancamento lancamento = new Lancamento();
 
@@ -1,18 +1,30 @@
 package com.haroldo.minhasfinancas.api.resource;
 
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.api.dto.UsuarioAutenticadoDTO;
 import com.haroldo.minhasfinancas.api.dto.UsuarioDTO;
 import com.haroldo.minhasfinancas.api.dto.UsuarioLoginDTO;
+import com.haroldo.minhasfinancas.autenticacao.AutenticacaoFilter;
+import com.haroldo.minhasfinancas.autenticacao.TokenAutenticacao;
+import com.haroldo.minhasfinancas.autenticacao.TokenEmitido;
 import com.haroldo.minhasfinancas.exception.ErroAutenticacaoException;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.exception.SobrecargaException;
+import com.haroldo.minhasfinancas.metricas.ContadorExcecoes;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
 import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.RelatorioService;
 import com.haroldo.minhasfinancas.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -22,6 +34,8 @@ public class UsuarioResource {
 
     private final UsuarioService service;
     private final LancamentoService lancamentoService;
+    private final RelatorioService relatorioService;
+    private final TokenAutenticacao tokenAutenticacao;
 
     //POST
     @PostMapping
@@ -41,39 +55,138 @@ public class UsuarioResource {
 
         } catch (RegraNegocioException e) {
 
+            ContadorExcecoes.contar(e);
             return ResponseEntity.badRequest().body(e.getMessage());
 
+        } catch (SobrecargaException e) {
+
+            ContadorExcecoes.contar(e);
+            return sobrecarga(e);
+
         }
 
     }
 
+    //O token da resposta identifica o usuario nos endpoints de lancamentos, sem consultar o banco a cada chamada
     @PostMapping("/autenticar")
     public ResponseEntity autenticar(@RequestBody UsuarioLoginDTO dto) {
 
         try {
 
             Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
+            TokenEmitido token = tokenAutenticacao.emitir(usuarioAutenticado.getId());
 
-            return ResponseEntity.ok(usuarioAutenticado);
+            return ResponseEntity.ok(UsuarioAutenticadoDTO.builder()
+                    .id(usuarioAutenticado.getId())
+                    .nome(usuarioAutenticado.getNome())
+                    .email(usuarioAutenticado.getEmail())
+                    .token(token.getToken())
+                    .expiraEm(token.getExpiraEm())
+                    .build());
 
         } catch (ErroAutenticacaoException e) {
 
+            ContadorExcecoes.contar(e);
             return ResponseEntity.badRequest().body(e.getMessage());
 
+        } catch (SobrecargaException e) {
+
+            ContadorExcecoes.contar(e);
+            return sobrecarga(e);
+
         }
 
     }
 
+    //Com o If-None-Match da versao atual dos lancamentos responde 304 sem calcular o saldo
     @GetMapping("{id}/saldo")
-    public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+    public ResponseEntity obterSaldo(@PathVariable("id") Long id, WebRequest request,
+                                     @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
+
+        exigirUsuarioDoToken(id, autenticado);
+
+        if (!usuarioExiste(id, autenticado))
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+
+        if (request.checkNotModified(VersaoHttp.etag(lancamentoService.obterVersaoLancamentos(id))))
+            return null;
+
+        //Uma unica consulta: vazio significa que o usuario nao existe
+        Optional<SaldoDTO> saldo = lancamentoService.obterResumoSaldoPorUsuario(id);
+
+        if (saldo.isEmpty())
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+
+        return ResponseEntity.ok(saldo.get().getSaldo());
+
+    }
+
+    @GetMapping("{id}/saldo/resumo")
+    public ResponseEntity obterResumoSaldo(@PathVariable("id") Long id, WebRequest request,
+                                           @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
+
+        exigirUsuarioDoToken(id, autenticado);
+
+        if (!usuarioExiste(id, autenticado))
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+
+        if (request.checkNotModified(VersaoHttp.etag(lancamentoService.obterVersaoLancamentos(id))))
+            return null;
+
+        Optional<SaldoDTO> saldo = lancamentoService.obterResumoSaldoPorUsuario(id);
+
+        if (saldo.isEmpty())
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+
+        return ResponseEntity.ok(saldo.get());
+
+    }
+
+    //Totais por mes, tipo e status: ?anoInicial=2021&mesInicial=1&anoFinal=2021&mesFinal=12 (todos opcionais)
+    @GetMapping("{id}/relatorio")
+    public ResponseEntity obterRelatorio(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "anoInicial", required = false) Integer anoInicial,
+            @RequestParam(value = "mesInicial", required = false) Integer mesInicial,
+            @RequestParam(value = "anoFinal", required = false) Integer anoFinal,
+            @RequestParam(value = "mesFinal", required = false) Integer mesFinal,
+            @RequestAttribute(name = AutenticacaoFilter.USUARIO, required = false) Long autenticado) {
 
-        Optional<Usuario> usuario = service.obterPorId(id);
+        exigirUsuarioDoToken(id, autenticado);
 
-        if (usuario.isEmpty())
+        if (service.obterPorId(id).isEmpty())
             return new ResponseEntity(HttpStatus.NOT_FOUND);
 
-        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-        return ResponseEntity.ok(saldo);
+        try {
 
+            List<RelatorioItemDTO> relatorio = relatorioService.gerarRelatorio(id, anoInicial, mesInicial, anoFinal, mesFinal);
+
+            return ResponseEntity.ok(relatorio);
+
+        } catch (RegraNegocioException e) {
+
+            ContadorExcecoes.contar(e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        }
+
+    }
+
+    //Com token, so os dados do proprio usuario; sem token (autenticacao opcional) vale o id do caminho
+    private static void exigirUsuarioDoToken(Long id, Long autenticado) {
+        if (autenticado != null && !autenticado.equals(id))
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "O usuário informado não é o do token de autenticação.");
     }
+
+    //A versao de um usuario inexistente tambem e 0: sem esta verificacao um If-None-Match "0" responderia 304.
+    //O usuario do token ja foi verificado pelo filtro de autenticacao; sem token o id e consultado no cache
+    private boolean usuarioExiste(Long id, Long autenticado) {
+        return autenticado != null || service.obterPorId(id).isPresent();
+    }
+
+    //O hash das senhas roda num executor limitado: com ele ocupado o cliente tenta de novo em seguida
+    private ResponseEntity sobrecarga(SobrecargaException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+    }
+
 }
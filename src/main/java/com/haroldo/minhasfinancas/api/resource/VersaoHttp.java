@@ -0,0 +1,34 @@
+package com.haroldo.minhasfinancas.api.resource;
+
+//ETag forte com o numero da versao ("3") e a versao esperada pelo If-Match
+final class VersaoHttp {
+
+    //Nenhuma versao gravada e negativa: um If-Match fraco (W/"3"), com lista ou invalido nunca corresponde
+    private static final long VERSAO_INEXISTENTE = -1L;
+
+    private VersaoHttp() {
+    }
+
+    static String etag(long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    //Nulo quando o If-Match nao foi enviado ou e "*", que aceita qualquer versao
+    static Long versaoEsperada(String ifMatch) {
+
+        if (ifMatch == null || ifMatch.trim().equals("*"))
+            return null;
+
+        String valor = ifMatch.trim();
+        if (valor.length() < 3 || !valor.startsWith("\"") || !valor.endsWith("\""))
+            return VERSAO_INEXISTENTE;
+
+        try {
+            return Long.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return VERSAO_INEXISTENTE;
+        }
+
+    }
+
+}
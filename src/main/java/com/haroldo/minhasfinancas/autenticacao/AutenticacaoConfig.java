@@ -0,0 +1,80 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AutenticacaoConfig {
+
+    //Cadastro e login continuam publicos; saldo e relatorio expoem os dados do usuario do caminho
+    static final List<String> CAMINHOS_PROTEGIDOS = Arrays.asList(
+            "/api/lancamentos",
+            "/api/lancamentos/**",
+            "/api/usuarios/*/saldo",
+            "/api/usuarios/*/saldo/resumo",
+            "/api/usuarios/*/relatorio");
+
+    //Registrado aqui, e nao como @Component, para ficar fora dos testes @WebMvcTest; depois do filtro de
+    //diagnostico, para que as requisicoes recusadas tambem aparecam no relatorio. O padrao de URL do servlet
+    //nao aceita curinga no meio do caminho: o filtro cobre /api/* e seleciona os CAMINHOS_PROTEGIDOS
+    @Bean
+    public FilterRegistrationBean<AutenticacaoFilter> autenticacaoFilter(
+            TokenAutenticacao token,
+            @Value("${minhasfinancas.autenticacao.obrigatoria:true}") boolean obrigatoria) {
+
+        FilterRegistrationBean<AutenticacaoFilter> registro = new FilterRegistrationBean<>(
+                new AutenticacaoFilter(token, obrigatoria, CAMINHOS_PROTEGIDOS));
+        registro.addUrlPatterns("/api/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registro;
+
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CodificadorSenha codificadorSenha(@Value("${minhasfinancas.senha.bcrypt.custo:10}") int custo) {
+        return new CodificadorSenhaBCrypt(custo);
+    }
+
+    //Sem threads configuradas, uma por nucleo: o hash so usa CPU, mais threads apenas dividiriam os mesmos nucleos
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService executorSenha(
+            @Value("${minhasfinancas.senha.executor.threads:0}") int threads,
+            @Value("${minhasfinancas.senha.executor.fila:100}") int fila,
+            MeterRegistry registry) {
+
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("senha-"), new ThreadPoolExecutor.AbortPolicy());
+
+        return ExecutorServiceMetrics.monitor(registry, executor, "senha");
+
+    }
+
+    @Bean
+    public VerificacaoSenha verificacaoSenha(
+            CodificadorSenha codificador,
+            @Qualifier("executorSenha") ExecutorService executor,
+            @Value("${minhasfinancas.senha.executor.espera:2s}") Duration espera) {
+
+        return new VerificacaoSenha(codificador, executor, espera);
+
+    }
+
+}
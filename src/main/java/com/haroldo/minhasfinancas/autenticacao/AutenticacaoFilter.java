@@ -0,0 +1,77 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+//Confere o token do header Authorization (Bearer) e guarda o id do usuario no atributo USUARIO da requisicao,
+//lido pelos endpoints com @RequestAttribute. Token invalido ou expirado e sempre 401; sem token, so quando
+//minhasfinancas.autenticacao.obrigatoria (com false os clientes antigos continuam enviando o parametro usuario)
+//caminhos: padroes Ant dos endpoints protegidos, os demais caminhos passam sem verificacao
+@RequiredArgsConstructor
+public class AutenticacaoFilter extends OncePerRequestFilter {
+
+    public static final String USUARIO = "minhasfinancas.autenticacao.usuario";
+
+    private static final String PREFIXO = "Bearer ";
+
+    private static final PathMatcher COMPARADOR = new AntPathMatcher();
+
+    private final TokenAutenticacao token;
+    private final boolean obrigatoria;
+    private final List<String> caminhos;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return caminhos.stream().noneMatch(padrao -> COMPARADOR.match(padrao, caminho));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (autorizacao == null || !autorizacao.regionMatches(true, 0, PREFIXO, 0, PREFIXO.length())) {
+
+            if (obrigatoria && !"OPTIONS".equals(request.getMethod())) {
+                recusar(response, "Informe o token de autenticação.");
+                return;
+            }
+
+            filterChain.doFilter(request, response);
+            return;
+
+        }
+
+        Optional<Long> idUsuario = token.verificar(autorizacao.substring(PREFIXO.length()).trim());
+
+        if (idUsuario.isEmpty()) {
+            recusar(response, "Token de autenticação inválido ou expirado.");
+            return;
+        }
+
+        request.setAttribute(USUARIO, idUsuario.get());
+        filterChain.doFilter(request, response);
+
+    }
+
+    private void recusar(HttpServletResponse response, String mensagem) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(mensagem);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+//Algoritmo de hash das senhas; outro algoritmo (Argon2, PBKDF2) entra declarando um bean deste tipo
+public interface CodificadorSenha {
+
+    String codificar(String senha);
+
+    boolean confere(String senha, String codificada);
+
+    //Se a senha gravada foi gerada por este algoritmo; as demais sao as gravadas em texto antes do hash
+    boolean reconhece(String codificada);
+
+    //A senha gravada tem custo diferente do configurado e deve ser recodificada no proximo login
+    boolean precisaRecodificar(String codificada);
+
+}
@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//O custo e o log2 das rodadas: cada unidade a mais dobra o tempo de codificar e de conferir uma senha
+public class CodificadorSenhaBCrypt implements CodificadorSenha {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    private final int custo;
+    private final BCryptPasswordEncoder encoder;
+
+    public CodificadorSenhaBCrypt(int custo) {
+        this.custo = custo;
+        this.encoder = new BCryptPasswordEncoder(custo);
+    }
+
+    @Override
+    public String codificar(String senha) {
+        return encoder.encode(senha);
+    }
+
+    @Override
+    public boolean confere(String senha, String codificada) {
+        return encoder.matches(senha, codificada);
+    }
+
+    @Override
+    public boolean reconhece(String codificada) {
+        return BCRYPT.matcher(codificada).matches();
+    }
+
+    //Tambem recodifica quando o custo foi reduzido, para que o login volte ao tempo esperado
+    @Override
+    public boolean precisaRecodificar(String codificada) {
+        Matcher bcrypt = BCRYPT.matcher(codificada);
+        return !bcrypt.matches() || Integer.parseInt(bcrypt.group(1)) != custo;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+//Token assinado com HMAC-SHA256 no formato idUsuario.expiraEm.assinatura (expiraEm em segundos desde a epoca):
+//a verificacao e feita em memoria, sem consultar o banco. Todas as instancias precisam do mesmo segredo
+@Slf4j
+@Component
+public class TokenAutenticacao {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int TAMANHO_MINIMO_SEGREDO = 32;
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    private final Mac prototipo;
+    private final Duration validade;
+    private final Clock relogio;
+
+    @Autowired
+    public TokenAutenticacao(
+            @Value("${minhasfinancas.autenticacao.segredo:}") String segredo,
+            @Value("${minhasfinancas.autenticacao.validade:8h}") Duration validade) {
+
+        this(chave(segredo), validade, Clock.systemUTC());
+
+    }
+
+    TokenAutenticacao(byte[] chave, Duration validade, Clock relogio) {
+
+        try {
+            this.prototipo = Mac.getInstance(ALGORITMO);
+            this.prototipo.init(new SecretKeySpec(chave, ALGORITMO));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Não foi possível iniciar a assinatura dos tokens.", e);
+        }
+
+        this.validade = validade;
+        this.relogio = relogio;
+
+    }
+
+    //Sem segredo configurado cada inicializacao sorteia o seu: os tokens deixam de valer ao reiniciar
+    //e nao sao aceitos por outras instancias
+    private static byte[] chave(String segredo) {
+
+        if (segredo.isEmpty()) {
+            log.warn("minhasfinancas.autenticacao.segredo não informado, os tokens valem apenas nesta instância.");
+            byte[] chave = new byte[TAMANHO_MINIMO_SEGREDO];
+            new SecureRandom().nextBytes(chave);
+            return chave;
+        }
+
+        byte[] chave = segredo.getBytes(StandardCharsets.UTF_8);
+        if (chave.length < TAMANHO_MINIMO_SEGREDO)
+            throw new IllegalArgumentException("minhasfinancas.autenticacao.segredo precisa ter ao menos " + TAMANHO_MINIMO_SEGREDO + " bytes.");
+
+        return chave;
+
+    }
+
+    public TokenEmitido emitir(Long idUsuario) {
+
+        Instant expiraEm = relogio.instant().plus(validade);
+        String conteudo = idUsuario + "." + expiraEm.getEpochSecond();
+
+        return new TokenEmitido(conteudo + "." + CODIFICADOR.encodeToString(assinar(conteudo)), expiraEm);
+
+    }
+
+    //Vazio quando o token esta mal formado, com assinatura invalida ou expirado
+    public Optional<Long> verificar(String token) {
+
+        int fimId = token.indexOf('.');
+        int fimConteudo = token.lastIndexOf('.');
+        if (fimId <= 0 || fimConteudo == fimId)
+            return Optional.empty();
+
+        String conteudo = token.substring(0, fimConteudo);
+
+        try {
+
+            byte[] assinatura = DECODIFICADOR.decode(token.substring(fimConteudo + 1));
+            if (!MessageDigest.isEqual(assinatura, assinar(conteudo)))
+                return Optional.empty();
+
+            long expiraEm = Long.parseLong(conteudo.substring(fimId + 1));
+            if (relogio.instant().getEpochSecond() >= expiraEm)
+                return Optional.empty();
+
+            return Optional.of(Long.valueOf(conteudo.substring(0, fimId)));
+
+        } catch (IllegalArgumentException e) {
+
+            return Optional.empty();
+
+        }
+
+    }
+
+    //Mac nao e thread-safe: cada assinatura usa uma copia do prototipo ja iniciado com a chave
+    private byte[] assinar(String conteudo) {
+
+        try {
+            Mac mac = (Mac) prototipo.clone();
+            return mac.doFinal(conteudo.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+@Getter
+@RequiredArgsConstructor
+public class TokenEmitido {
+
+    private final String token;
+    private final Instant expiraEm;
+
+}
@@ -0,0 +1,90 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import com.haroldo.minhasfinancas.exception.SobrecargaException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Codifica e confere senhas no executor dedicado (poucas threads e fila limitada): numa rajada de logins o
+//hash ocupa no maximo essas threads, e o que nao cabe na fila ou passa da espera e recusado com
+//SobrecargaException em vez de tomar a CPU das demais requisicoes
+public class VerificacaoSenha {
+
+    private final CodificadorSenha codificador;
+    private final Executor executor;
+    private final Duration espera;
+
+    public VerificacaoSenha(CodificadorSenha codificador, Executor executor, Duration espera) {
+        this.codificador = codificador;
+        this.executor = executor;
+        this.espera = espera;
+    }
+
+    public String codificar(String senha) {
+        return executar(() -> codificador.codificar(senha));
+    }
+
+    //Senhas gravadas em texto, antes do hash, sao comparadas diretamente e recodificadas no login
+    public boolean confere(String senha, String codificada) {
+
+        if (senha == null || codificada == null)
+            return false;
+
+        if (!codificador.reconhece(codificada))
+            return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8), codificada.getBytes(StandardCharsets.UTF_8));
+
+        return executar(() -> codificador.confere(senha, codificada));
+
+    }
+
+    public boolean precisaRecodificar(String codificada) {
+        return !codificador.reconhece(codificada) || codificador.precisaRecodificar(codificada);
+    }
+
+    //A tarefa que so sai da fila depois da espera nao calcula o hash: quem pediu ja recebeu a recusa
+    private <T> T executar(Supplier<T> tarefa) {
+
+        long limite = System.nanoTime() + espera.toNanos();
+        CompletableFuture<T> futuro = null;
+
+        try {
+
+            futuro = CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() - limite >= 0)
+                    throw new CancellationException();
+                return tarefa.get();
+            }, executor);
+
+            return futuro.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+
+        } catch (RejectedExecutionException | TimeoutException e) {
+
+            if (futuro != null)
+                futuro.cancel(false);
+            throw new SobrecargaException("Muitas autenticações em andamento, tente novamente em instantes.");
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new SobrecargaException("Autenticação interrompida, tente novamente.");
+
+        } catch (ExecutionException e) {
+
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.haroldo.minhasfinancas.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USUARIOS = "usuarios";
+    public static final String SALDOS = "saldos";
+
+    @Value("${minhasfinancas.cache.usuarios.tamanho-maximo:10000}")
+    private long tamanhoMaximoUsuarios;
+
+    @Value("${minhasfinancas.cache.usuarios.expiracao:10m}")
+    private Duration expiracaoUsuarios;
+
+    @Value("${minhasfinancas.cache.saldos.tamanho-maximo:10000}")
+    private long tamanhoMaximoSaldos;
+
+    @Value("${minhasfinancas.cache.saldos.expiracao:5m}")
+    private Duration expiracaoSaldos;
+
+    //As remocoes feitas dentro de uma transacao so sao aplicadas apos o commit,
+    //assim uma leitura concorrente nao volta a guardar o saldo anterior
+    @Bean
+    public CacheManager cacheManager() {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USUARIOS, criarCache(tamanhoMaximoUsuarios, expiracaoUsuarios));
+        cacheManager.registerCustomCache(SALDOS, criarCache(tamanhoMaximoSaldos, expiracaoSaldos));
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+
+    }
+
+    //recordStats alimenta as metricas cache.gets, cache.puts e cache.evictions do actuator
+    private Cache<Object, Object> criarCache(long tamanhoMaximo, Duration expiracao) {
+        return Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+    }
+
+}
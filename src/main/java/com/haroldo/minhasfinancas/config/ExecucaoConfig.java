@@ -0,0 +1,62 @@
+package com.haroldo.minhasfinancas.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+//minhasfinancas.execucao.modo=virtual: requisicoes do Tomcat e respostas assincronas do MVC (como a exportacao)
+//em threads virtuais, o que exige Java 21 ou superior: numa JVM anterior a aplicacao nao inicia. No modo
+//padrao "plataforma" ficam nos pools limitados (server.tomcat.threads.* e spring.task.execution.pool.*)
+@Configuration
+public class ExecucaoConfig {
+
+    public static final String MODO_VIRTUAL = "virtual";
+
+    @Value("${minhasfinancas.execucao.modo:plataforma}")
+    private String modo;
+
+    //Nome applicationTaskExecutor: tambem e o executor das requisicoes assincronas do Spring MVC
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+
+        Optional<ExecutorService> virtual = executorVirtual("tarefa-");
+        if (virtual.isPresent())
+            return new ConcurrentTaskExecutor(virtual.get());
+
+        return builder.build();
+
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "minhasfinancas.execucao.modo", havingValue = MODO_VIRTUAL)
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> threadsVirtuaisTomcat() {
+
+        Optional<ExecutorService> virtual = executorVirtual("http-");
+        return protocolHandler -> virtual.ifPresent(protocolHandler::setExecutor);
+
+    }
+
+    private Optional<ExecutorService> executorVirtual(String prefixo) {
+
+        if (!MODO_VIRTUAL.equals(modo))
+            return Optional.empty();
+
+        Optional<ExecutorService> executor = ThreadsVirtuais.criarExecutor(prefixo);
+        if (!executor.isPresent())
+            throw new IllegalStateException("minhasfinancas.execucao.modo=virtual exige Java 21 ou superior, a JVM e "
+                    + Runtime.version().feature() + ".");
+
+        return executor;
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.haroldo.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class PoolConexoesConfig {
+
+    //Prefixo das propriedades de cada pool, o tamanho informado nelas sempre prevalece
+    private static final Map<String, String> PREFIXOS = new HashMap<>();
+
+    static {
+        PREFIXOS.put("dataSource", "spring.datasource.hikari");
+        PREFIXOS.put("primarioDataSource", "spring.datasource.hikari");
+        PREFIXOS.put("replicaDataSource", "minhasfinancas.datasource.replica.hikari");
+    }
+
+    //Com minhasfinancas.datasource.pool.dimensionar-pelos-nucleos, pools sem maximum-pool-size ficam com
+    //nucleos * 2 + 1 conexoes (formula do HikariCP) e minimum-idle igual, sem abrir conexoes sob carga
+    @Bean
+    public static BeanPostProcessor dimensionamentoPoolPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+
+                String prefixo = PREFIXOS.get(beanName);
+                if (!(bean instanceof HikariDataSource) || prefixo == null
+                        || !environment.getProperty("minhasfinancas.datasource.pool.dimensionar-pelos-nucleos", Boolean.class, false)
+                        || environment.containsProperty(prefixo + ".maximum-pool-size"))
+                    return bean;
+
+                int conexoes = tamanhoPeloNumeroDeNucleos(Runtime.getRuntime().availableProcessors());
+                HikariDataSource pool = (HikariDataSource) bean;
+                pool.setMaximumPoolSize(conexoes);
+                if (!environment.containsProperty(prefixo + ".minimum-idle"))
+                    pool.setMinimumIdle(conexoes);
+
+                return pool;
+
+            }
+        };
+    }
+
+    static int tamanhoPeloNumeroDeNucleos(int nucleos) {
+        return nucleos * 2 + 1;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.haroldo.minhasfinancas.config;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+//O build continua em Java 11: as threads virtuais (Java 21) sao criadas por reflexao quando a JVM as oferece
+final class ThreadsVirtuais {
+
+    private ThreadsVirtuais() {
+    }
+
+    //Uma thread virtual por tarefa, vazio quando a JVM nao tem threads virtuais ou as tem apenas como preview
+    static Optional<ExecutorService> criarExecutor(String prefixo) {
+
+        try {
+
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            ofVirtual = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefixo, 0L);
+            ThreadFactory fabrica = (ThreadFactory) builder.getMethod("factory").invoke(ofVirtual);
+
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, fabrica));
+
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+
+    }
+
+}
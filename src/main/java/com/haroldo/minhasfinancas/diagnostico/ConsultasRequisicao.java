@@ -0,0 +1,42 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import lombok.Getter;
+
+//Comandos SQL executados pela requisicao em andamento na thread atual
+@Getter
+public class ConsultasRequisicao {
+
+    private static final ThreadLocal<ConsultasRequisicao> ATUAL = new ThreadLocal<>();
+
+    private int quantidade;
+    private long tempoTotalMs;
+    private long tempoMaisLentaMs = -1;
+    private String maisLenta;
+
+    public static ConsultasRequisicao iniciar() {
+        ConsultasRequisicao consultas = new ConsultasRequisicao();
+        ATUAL.set(consultas);
+        return consultas;
+    }
+
+    public static ConsultasRequisicao atual() {
+        return ATUAL.get();
+    }
+
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    void registrar(String sql, long tempoMs) {
+
+        quantidade++;
+        tempoTotalMs += tempoMs;
+
+        if (tempoMs > tempoMaisLentaMs) {
+            tempoMaisLentaMs = tempoMs;
+            maisLenta = sql;
+        }
+
+    }
+
+}
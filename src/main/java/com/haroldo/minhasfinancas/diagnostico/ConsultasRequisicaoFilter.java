@@ -0,0 +1,60 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+
+//Acompanha os comandos SQL de cada requisicao e envia o resultado ao relatorio de requisicoes lentas
+//Comandos executados fora da thread da requisicao (exportacao em streaming) nao sao contados
+@RequiredArgsConstructor
+public class ConsultasRequisicaoFilter extends OncePerRequestFilter {
+
+    private final RelatorioRequisicoesLentas relatorio;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Instant inicio = relatorio.agora();
+        long inicioNanos = System.nanoTime();
+        ConsultasRequisicao consultas = ConsultasRequisicao.iniciar();
+
+        try {
+
+            filterChain.doFilter(request, response);
+
+        } finally {
+
+            ConsultasRequisicao.encerrar();
+
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+            relatorio.registrar(RequisicaoLentaDTO.builder()
+                    .instante(inicio)
+                    .metodo(request.getMethod())
+                    .uri(padrao != null ? padrao.toString() : request.getRequestURI())
+                    .status(response.getStatus())
+                    .duracaoMs((System.nanoTime() - inicioNanos) / 1_000_000)
+                    .quantidadeConsultas(consultas.getQuantidade())
+                    .tempoConsultasMs(consultas.getTempoTotalMs())
+                    .tempoConsultaMaisLentaMs(Math.max(0, consultas.getTempoMaisLentaMs()))
+                    .consultaMaisLenta(consultas.getMaisLenta())
+                    .build());
+
+        }
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//Fora de producao as respostas informam os comandos SQL executados ate a escrita do corpo
+@Profile("!production")
+@ControllerAdvice
+public class ConsultasRequisicaoHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUANTIDADE = "X-SQL-Quantidade";
+    public static final String TEMPO = "X-SQL-Tempo-Ms";
+    public static final String MAIS_LENTA = "X-SQL-Mais-Lenta-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+
+        ConsultasRequisicao consultas = ConsultasRequisicao.atual();
+
+        if (consultas != null) {
+            response.getHeaders().set(QUANTIDADE, String.valueOf(consultas.getQuantidade()));
+            response.getHeaders().set(TEMPO, String.valueOf(consultas.getTempoTotalMs()));
+            response.getHeaders().set(MAIS_LENTA, String.valueOf(Math.max(0, consultas.getTempoMaisLentaMs())));
+        }
+
+        return body;
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Cada execucao conta como um comando, um lote JDBC com varios inserts e uma unica ida ao banco
+public class ConsultasRequisicaoListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        ConsultasRequisicao consultas = ConsultasRequisicao.atual();
+
+        if (consultas == null)
+            return;
+
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+        consultas.registrar(sql, execInfo.getElapsedTime());
+
+    }
+
+}
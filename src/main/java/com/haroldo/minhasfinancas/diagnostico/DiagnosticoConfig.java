@@ -0,0 +1,44 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DiagnosticoConfig {
+
+    //Envolve apenas o pool principal, o proxy repassa unwrap ao Hikari (metricas do pool continuam funcionando)
+    @Bean
+    public static BeanPostProcessor consultasRequisicaoDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+                if (!(bean instanceof DataSource) || !"dataSource".equals(beanName))
+                    return bean;
+
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new ConsultasRequisicaoListener())
+                        .build();
+
+            }
+        };
+    }
+
+    //Registrado aqui, e nao como @Component, para ficar fora dos testes @WebMvcTest
+    @Bean
+    public FilterRegistrationBean<ConsultasRequisicaoFilter> consultasRequisicaoFilter(RelatorioRequisicoesLentas relatorio) {
+
+        FilterRegistrationBean<ConsultasRequisicaoFilter> registro = new FilterRegistrationBean<>(new ConsultasRequisicaoFilter(relatorio));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+
+    }
+
+}
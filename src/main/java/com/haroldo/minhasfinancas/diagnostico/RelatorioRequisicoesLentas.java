@@ -0,0 +1,77 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+//As N requisicoes mais lentas dentro da janela recente, as mais antigas que a janela sao descartadas
+@Component
+public class RelatorioRequisicoesLentas {
+
+    private static final Comparator<RequisicaoLentaDTO> POR_DURACAO = Comparator.comparingLong(RequisicaoLentaDTO::getDuracaoMs);
+
+    private final int quantidade;
+    private final Duration janela;
+    private final Clock relogio;
+    private final PriorityQueue<RequisicaoLentaDTO> maisLentas;
+
+    @Autowired
+    public RelatorioRequisicoesLentas(
+            @Value("${minhasfinancas.diagnostico.requisicoes-lentas.quantidade:20}") int quantidade,
+            @Value("${minhasfinancas.diagnostico.requisicoes-lentas.janela:15m}") Duration janela) {
+
+        this(quantidade, janela, Clock.systemUTC());
+
+    }
+
+    RelatorioRequisicoesLentas(int quantidade, Duration janela, Clock relogio) {
+
+        this.quantidade = quantidade;
+        this.janela = janela;
+        this.relogio = relogio;
+        this.maisLentas = new PriorityQueue<>(quantidade + 1, POR_DURACAO);
+
+    }
+
+    public Instant agora() {
+        return relogio.instant();
+    }
+
+    public synchronized void registrar(RequisicaoLentaDTO requisicao) {
+
+        descartarAntigas();
+
+        //O topo da fila e a mais rapida entre as guardadas
+        if (maisLentas.size() < quantidade) {
+            maisLentas.add(requisicao);
+        } else if (requisicao.getDuracaoMs() > maisLentas.peek().getDuracaoMs()) {
+            maisLentas.poll();
+            maisLentas.add(requisicao);
+        }
+
+    }
+
+    public synchronized List<RequisicaoLentaDTO> listar() {
+
+        descartarAntigas();
+
+        List<RequisicaoLentaDTO> lista = new ArrayList<>(maisLentas);
+        lista.sort(POR_DURACAO.reversed());
+        return lista;
+
+    }
+
+    private void descartarAntigas() {
+        Instant limite = relogio.instant().minus(janela);
+        maisLentas.removeIf(requisicao -> requisicao.getInstante().isBefore(limite));
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+public class RequisicaoLentaDTO {
+
+    private Instant instante;
+    private String metodo;
+    private String uri;
+    private int status;
+    private long duracaoMs;
+    private int quantidadeConsultas;
+    private long tempoConsultasMs;
+    private long tempoConsultaMaisLentaMs;
+    private String consultaMaisLenta;
+
+}
@@ -0,0 +1,23 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//GET /actuator/requisicoeslentas
+@Component
+@Endpoint(id = "requisicoeslentas")
+@RequiredArgsConstructor
+public class RequisicoesLentasEndpoint {
+
+    private final RelatorioRequisicoesLentas relatorio;
+
+    @ReadOperation
+    public List<RequisicaoLentaDTO> requisicoesLentas() {
+        return relatorio.listar();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.haroldo.minhasfinancas.exception;
+
+//Recurso limitado esgotado (fila cheia ou espera excedida): a requisicao pode ser repetida em seguida
+public class SobrecargaException extends RuntimeException {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    public SobrecargaException(String msg) {
+        super(msg);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.haroldo.minhasfinancas.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Year;
+
+//Cria as particoes anuais de financas.lancamento antes de o ano comecar (perfil particionado)
+//Sem elas os lancamentos do ano vao para lancamento_padrao e o planner nao consegue descarta-los
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "minhasfinancas.lancamento.particoes.habilitado", havingValue = "true")
+public class ParticoesLancamentoJob {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${minhasfinancas.lancamento.particoes.anos-a-frente:1}")
+    private int anosAFrente;
+
+    //Uma falha aqui nao impede a aplicacao de subir: os lancamentos seguem para lancamento_padrao
+    //e o job mensal tenta de novo
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        try {
+            criarParticoes();
+        } catch (DataAccessException e) {
+            log.error("Nao foi possivel criar as particoes de lancamento na inicializacao.", e);
+        }
+    }
+
+    @Scheduled(cron = "${minhasfinancas.lancamento.particoes.cron:0 0 2 1 * *}")
+    public void criarParticoes() {
+
+        int anoAtual = Year.now().getValue();
+        Integer criadas = jdbcTemplate.queryForObject("select financas.criar_particoes_lancamento(?, ?)",
+                Integer.class, anoAtual, anoAtual + anosAFrente);
+
+        if (criadas != null && criadas > 0)
+            log.info("Criada(s) {} particao(oes) de lancamento ate {}.", criadas, anoAtual + anosAFrente);
+
+    }
+
+}
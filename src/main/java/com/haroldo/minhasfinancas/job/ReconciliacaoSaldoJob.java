@@ -0,0 +1,47 @@
+package com.haroldo.minhasfinancas.job;
+
+import com.haroldo.minhasfinancas.api.dto.DivergenciaSaldoDTO;
+import com.haroldo.minhasfinancas.service.SaldoUsuarioService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//Reconstroi financas.saldo_usuario a partir de financas.lancamento e informa as divergencias encontradas
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconciliacaoSaldoJob {
+
+    private final SaldoUsuarioService saldoUsuarioService;
+
+    @Value("${minhasfinancas.saldo.reconciliacao.na-inicializacao:false}")
+    private boolean naInicializacao;
+
+    //Desligado por padrao: cada instancia rodaria a reconciliacao a cada inicializacao, e o resumo de bases
+    //antigas ja e populado pela migration V1
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (naInicializacao)
+            reconciliar();
+    }
+
+    @Scheduled(cron = "${minhasfinancas.saldo.reconciliacao.cron:0 0 3 * * *}")
+    public void reconciliar() {
+
+        List<DivergenciaSaldoDTO> divergencias = saldoUsuarioService.reconciliar();
+
+        if (divergencias.isEmpty()) {
+            log.info("Reconciliacao do saldo concluida sem divergencias.");
+        } else {
+            log.warn("Reconciliacao do saldo corrigiu {} divergencia(s).", divergencias.size());
+        }
+
+    }
+
+}
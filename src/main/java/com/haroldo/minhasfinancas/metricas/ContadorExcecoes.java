@@ -0,0 +1,39 @@
+package com.haroldo.minhasfinancas.metricas;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.regex.Pattern;
+
+//Conta as excecoes de negocio onde sao tratadas: nos catch dos resources e nas linhas recusadas da importacao.
+//Contar na criacao incluiria as excecoes descartadas ou relancadas, e cada uma apenas uma vez
+//O registro global recebe os registros configurados pelo Spring Boot (management.metrics.use-global-registry)
+public final class ContadorExcecoes {
+
+    public static final String METRICA = "minhasfinancas.excecoes";
+
+    private static final Pattern NUMEROS = Pattern.compile("\\d+");
+
+    private ContadorExcecoes() {
+    }
+
+    public static void contar(RuntimeException excecao) {
+        Metrics.counter(METRICA,
+                "excecao", excecao.getClass().getSimpleName(),
+                "categoria", categoria(excecao.getMessage()))
+                .increment();
+    }
+
+    //Mensagens com partes variaveis ("JSON inválido: ...", "entre 1 e 1000") viram uma unica categoria
+    static String categoria(String mensagem) {
+
+        if (mensagem == null)
+            return "sem mensagem";
+
+        int detalhe = mensagem.indexOf(':');
+        String categoria = detalhe < 0 ? mensagem : mensagem.substring(0, detalhe);
+
+        return NUMEROS.matcher(categoria.trim()).replaceAll("#");
+
+    }
+
+}
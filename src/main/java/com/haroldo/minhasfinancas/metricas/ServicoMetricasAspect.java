@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+//Tempo de cada metodo publico dos servicos, entre o tempo do handler (http.server.requests)
+//e o das consultas (spring.data.repository.invocations)
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServicoMetricasAspect {
+
+    public static final String METRICA = "minhasfinancas.servico";
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * com.haroldo.minhasfinancas.service.impl..*(..))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        Timer.Sample inicio = Timer.start(registry);
+        String excecao = "none";
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excecao = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            inicio.stop(Timer.builder(METRICA)
+                    .tag("classe", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("metodo", joinPoint.getSignature().getName())
+                    .tag("exception", excecao)
+                    .register(registry));
+        }
+
+    }
+
+}
@@ -8,15 +8,21 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
@@ -27,14 +33,17 @@ import lombok.Data;
 
 @Entity
 @Table(name = "lancamento", schema = "financas")
+@DynamicUpdate //O update de uma edicao leva apenas as colunas alteradas
 @Builder
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Lancamento {
-	
+
+	//Sequencia com alocacao em blocos: IDENTITY impede o Hibernate de agrupar os inserts em lote
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+	@SequenceGenerator(name = "lancamento_id_seq", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
 	@Column(name = "id")
 	private Long id;
 	
@@ -54,8 +63,11 @@ public class Lancamento {
 	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
 	private LocalDate dataCadastro;
 	
-	@ManyToOne
+	//LAZY: getUsuario().getId() le a chave estrangeira sem consultar financas.usuario
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	private Usuario usuario;
 	
 	@Column(name = "tipo")
@@ -65,5 +77,10 @@ public class Lancamento {
 	@Column(name = "status")
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
+
+	//Controle de concorrencia otimista: o update confere a versao lida e falha se outro usuario gravou antes
+	@Version
+	@Column(name = "versao")
+	private Long versao;
 	
 }
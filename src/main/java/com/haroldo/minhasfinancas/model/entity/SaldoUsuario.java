@@ -0,0 +1,67 @@
+package com.haroldo.minhasfinancas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Totais de lancamentos por usuario, ano/mes, tipo e status mantidos a cada escrita
+@Entity
+@Table(name = "saldo_usuario", schema = "financas",
+		uniqueConstraints = @UniqueConstraint(columnNames = {"id_usuario", "ano", "mes", "tipo", "status"}))
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+	//Usado pela consulta agregada da reconciliacao (select new ...)
+	public SaldoUsuario(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo,
+						StatusLancamento status, BigDecimal valor, Long quantidade) {
+		this(null, idUsuario, ano, mes, tipo, status, valor, quantidade);
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.haroldo.minhasfinancas.model.filter;
+
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Posicao da busca paginada por chave (ano, mes, id), trafega para o cliente como um token opaco
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+
+    private final Integer ano;
+    private final Integer mes;
+    private final Long id;
+
+    public static CursorLancamento de(LancamentoResumoDTO lancamento) {
+        return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+    }
+
+    public String codificar() {
+        String valor = ano + ":" + mes + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorLancamento decodificar(String token) {
+
+        try {
+
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":");
+
+            return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+
+            throw new RegraNegocioException("Cursor de paginação inválido.");
+
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.haroldo.minhasfinancas.model.filter;
+
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+//Filtros da busca de lancamentos, campos nulos nao filtram
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoFilter {
+
+    private Long idUsuario;
+    private String descricao;
+    private Integer mes;
+    private Integer ano;
+
+    //Periodo (ano/mes) inicial e final, inclusive
+    private Integer anoInicial;
+    private Integer mesInicial;
+    private Integer anoFinal;
+    private Integer mesFinal;
+
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private BigDecimal valorMinimo;
+    private BigDecimal valorMaximo;
+
+}
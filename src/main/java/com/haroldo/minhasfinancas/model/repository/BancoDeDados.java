@@ -0,0 +1,20 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+
+//Os comandos nativos que nao tem sintaxe comum (upsert) escolhem a variante pelo dialeto do Hibernate:
+//Postgres em producao e H2 nos testes
+final class BancoDeDados {
+
+    private BancoDeDados() {
+    }
+
+    static boolean postgres(EntityManager entityManager) {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
+
+}
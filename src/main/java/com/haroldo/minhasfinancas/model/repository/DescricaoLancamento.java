@@ -0,0 +1,10 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+//Projecao com apenas o necessario para indexar a descricao dos lancamentos
+public interface DescricaoLancamento {
+
+    Long getId();
+
+    String getDescricao();
+
+}
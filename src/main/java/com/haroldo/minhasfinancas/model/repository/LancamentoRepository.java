@@ -1,19 +1,73 @@
 package com.haroldo.minhasfinancas.model.repository;
 
-import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import javax.persistence.QueryHint;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-    @Query(value = "select sum(l.valor) " +
-            "from Lancamento l join l.usuario u " +
-            "where u.id = :idUsuario and l.tipo = :tipo group by u")
-    BigDecimal obterSaldoPorTipoLancamentoUsuario(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>,
+        JpaSpecificationExecutor<Lancamento>, LancamentoRepositoryCustom {
+
+    //Regiao do cache de consultas dos totais, invalidada pelo Hibernate a cada escrita nas tabelas envolvidas
+    String REGIAO_AGREGADOS = "lancamento-agregados";
+
+    //Receitas e despesas em uma unica consulta, partindo do usuario para nao precisar consultar se ele existe
+    //Retorna vazio quando o usuario nao existe
+    @Query(value = "select new com.haroldo.minhasfinancas.api.dto.SaldoDTO( " +
+            "sum(case when l.tipo = com.haroldo.minhasfinancas.model.enums.TipoLancamento.RECEITA then l.valor else 0 end), " +
+            "sum(case when l.tipo = com.haroldo.minhasfinancas.model.enums.TipoLancamento.DESPESA then l.valor else 0 end)) " +
+            "from Usuario u left join Lancamento l on l.usuario = u " +
+            "where u.id = :idUsuario group by u.id")
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = REGIAO_AGREGADOS)})
+    Optional<SaldoDTO> obterSaldoUsuario(@Param("idUsuario") Long idUsuario);
+
+    //Recalcula o resumo de saldos dos usuarios a partir dos lancamentos, usado pela reconciliacao
+    @Query(value = "select new com.haroldo.minhasfinancas.model.entity.SaldoUsuario( " +
+            "l.usuario.id, l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(l)) " +
+            "from Lancamento l " +
+            "where l.usuario.id in :idsUsuarios and l.tipo is not null and l.status is not null " +
+            "group by l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+    List<SaldoUsuario> calcularSaldosDosUsuarios(@Param("idsUsuarios") Collection<Long> idsUsuarios);
+
+    @Query(value = "select l.id as id, l.descricao as descricao from Lancamento l where l.usuario.id = :idUsuario")
+    List<DescricaoLancamento> findDescricoesByUsuario(@Param("idUsuario") Long idUsuario);
+
+    //Postgres com pg_trgm: usa o indice GIN (id_usuario, descricao gin_trgm_ops) e ordena pela similaridade
+    //padrao e o termo ja escapado (LancamentoSpecifications.escaparLike) entre %
+    @Query(value = "select l.id from financas.lancamento l " +
+            "where l.id_usuario = :idUsuario and (l.descricao ilike :padrao escape '\\' or l.descricao % :termo) " +
+            "order by similarity(l.descricao, :termo) desc, l.id desc",
+            countQuery = "select count(*) from financas.lancamento l " +
+                    "where l.id_usuario = :idUsuario and (l.descricao ilike :padrao escape '\\' or l.descricao % :termo)",
+            nativeQuery = true)
+    Page<Long> buscarIdsPorSimilaridadeDaDescricao(@Param("idUsuario") Long idUsuario, @Param("termo") String termo,
+                                                   @Param("padrao") String padrao, Pageable pageable);
+
+    @Query(value = "select new com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO( " +
+            "l.id, l.descricao, l.mes, l.ano, l.valor, l.tipo, l.status, l.usuario.id, l.dataCadastro, l.versao) " +
+            "from Lancamento l where l.id = :id")
+    Optional<LancamentoResumoDTO> findResumoById(@Param("id") Long id);
+
+    @Query(value = "select new com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO( " +
+            "l.id, l.descricao, l.mes, l.ano, l.valor, l.tipo, l.status, l.usuario.id, l.dataCadastro, l.versao) " +
+            "from Lancamento l where l.id in :ids")
+    List<LancamentoResumoDTO> findResumosByIdIn(@Param("ids") Collection<Long> ids);
 
 }
@@ -0,0 +1,43 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+//Buscas que selecionam apenas as colunas do LancamentoResumoDTO, sem carregar entidades,
+//e escritas em lote por Specification
+public interface LancamentoRepositoryCustom {
+
+    List<LancamentoResumoDTO> buscarResumos(Specification<Lancamento> specification, Sort sort);
+
+    Page<LancamentoResumoDTO> buscarResumos(Specification<Lancamento> specification, Pageable pageable);
+
+    //Busca limitada sem a consulta de contagem que o Page exige
+    List<LancamentoResumoDTO> buscarResumosLimitado(Specification<Lancamento> specification, Sort sort, int limite);
+
+    //Leitura sob demanda por cursor JDBC, deve ser consumida e fechada dentro de uma transacao
+    Stream<LancamentoResumoDTO> transmitirResumos(Specification<Lancamento> specification, Sort sort);
+
+    //Um item por (ano, mes, tipo, status), calculado por um unico group by
+    List<RelatorioItemDTO> totalizarPorMes(Specification<Lancamento> specification);
+
+    //select ... for update das colunas do resumo de saldo, no maximo limite linhas: trava os lancamentos ate o fim
+    //da transacao, sem carregar as entidades. Um SaldoUsuario por lancamento, com quantidade 1
+    List<SaldoUsuario> bloquearParaSaldo(Specification<Lancamento> specification, int limite);
+
+    //Um unico update ... set status, retorna a quantidade de lancamentos alterados
+    int atualizarStatus(Specification<Lancamento> specification, StatusLancamento status);
+
+    //Um unico delete, retorna a quantidade de lancamentos removidos
+    int deletar(Specification<Lancamento> specification);
+
+}
@@ -0,0 +1,211 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+    private static final int TAMANHO_LOTE_CURSOR = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LancamentoResumoDTO> buscarResumos(Specification<Lancamento> specification, Sort sort) {
+        return criarConsulta(specification, sort).getResultList();
+    }
+
+    @Override
+    public Page<LancamentoResumoDTO> buscarResumos(Specification<Lancamento> specification, Pageable pageable) {
+
+        TypedQuery<LancamentoResumoDTO> query = criarConsulta(specification, pageable.getSort());
+
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> contar(specification));
+
+    }
+
+    @Override
+    public List<LancamentoResumoDTO> buscarResumosLimitado(Specification<Lancamento> specification, Sort sort, int limite) {
+        return criarConsulta(specification, sort)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<LancamentoResumoDTO> transmitirResumos(Specification<Lancamento> specification, Sort sort) {
+
+        //O fetch size faz o driver buscar as linhas em blocos em vez de materializar todo o resultado
+        return criarConsulta(specification, sort)
+                .setHint(QueryHints.HINT_FETCH_SIZE, TAMANHO_LOTE_CURSOR)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+
+    }
+
+    @Override
+    public List<RelatorioItemDTO> totalizarPorMes(Specification<Lancamento> specification) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RelatorioItemDTO> query = cb.createQuery(RelatorioItemDTO.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Path<Integer> ano = root.get("ano");
+        Path<Integer> mes = root.get("mes");
+        Path<Object> tipo = root.get("tipo");
+        Path<Object> status = root.get("status");
+
+        query.select(cb.construct(RelatorioItemDTO.class,
+                ano, mes, tipo, status,
+                cb.sum(root.<BigDecimal>get("valor")),
+                cb.count(root)));
+
+        if (specification != null)
+            query.where(specification.toPredicate(root, query, cb));
+
+        query.groupBy(ano, mes, tipo, status);
+        query.orderBy(cb.asc(ano), cb.asc(mes), cb.asc(tipo), cb.asc(status));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, LancamentoRepository.REGIAO_AGREGADOS)
+                .getResultList();
+
+    }
+
+    //O for update nao aceita group by: as linhas travadas sao somadas por quem chama
+    @Override
+    public List<SaldoUsuario> bloquearParaSaldo(Specification<Lancamento> specification, int limite) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Path<Long> usuario = root.get("usuario").get("id");
+        Path<Integer> ano = root.get("ano");
+        Path<Integer> mes = root.get("mes");
+        Path<TipoLancamento> tipo = root.get("tipo");
+        Path<StatusLancamento> status = root.get("status");
+        Path<BigDecimal> valor = root.get("valor");
+
+        query.multiselect(usuario, ano, mes, tipo, status, valor);
+
+        if (specification != null)
+            query.where(specification.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limite)
+                .getResultStream()
+                .map(linha -> new SaldoUsuario(linha.get(usuario), linha.get(ano), linha.get(mes),
+                        linha.get(tipo), linha.get(status), linha.get(valor), 1L))
+                .collect(Collectors.toList());
+
+    }
+
+    //As Specifications de LancamentoSpecifications so usam root e cb, entao servem tambem ao update
+    @Override
+    public int atualizarStatus(Specification<Lancamento> specification, StatusLancamento status) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+        Root<Lancamento> root = update.from(Lancamento.class);
+
+        //Um update direto nao passa pelo @Version, a versao e incrementada aqui
+        update.set(root.<StatusLancamento>get("status"), status);
+        update.set(root.<Long>get("versao"), cb.sum(root.<Long>get("versao"), 1L));
+        update.where(specification.toPredicate(root, null, cb));
+
+        return entityManager.createQuery(update).executeUpdate();
+
+    }
+
+    @Override
+    public int deletar(Specification<Lancamento> specification) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Lancamento> delete = cb.createCriteriaDelete(Lancamento.class);
+        Root<Lancamento> root = delete.from(Lancamento.class);
+
+        delete.where(specification.toPredicate(root, null, cb));
+
+        return entityManager.createQuery(delete).executeUpdate();
+
+    }
+
+    private TypedQuery<LancamentoResumoDTO> criarConsulta(Specification<Lancamento> specification, Sort sort) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LancamentoResumoDTO> query = cb.createQuery(LancamentoResumoDTO.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        //usuario.id le a chave estrangeira, sem join com financas.usuario
+        query.select(cb.construct(LancamentoResumoDTO.class,
+                root.get("id"),
+                root.get("descricao"),
+                root.get("mes"),
+                root.get("ano"),
+                root.get("valor"),
+                root.get("tipo"),
+                root.get("status"),
+                root.get("usuario").get("id"),
+                root.get("dataCadastro"),
+                root.get("versao")));
+
+        if (specification != null)
+            query.where(specification.toPredicate(root, query, cb));
+
+        if (sort.isSorted())
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+
+    }
+
+    private long contar(Specification<Lancamento> specification) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        query.select(cb.count(root));
+
+        if (specification != null)
+            query.where(specification.toPredicate(root, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+
+    }
+
+}
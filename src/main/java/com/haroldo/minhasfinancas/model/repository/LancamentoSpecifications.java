@@ -0,0 +1,122 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+//Predicados da busca de lancamentos, um parametro nulo nao filtra
+//A busca sempre comeca pelo id_usuario para usar os indices (id_usuario, ano, mes) e (id_usuario, tipo, status)
+//Intervalos e cursor repetem o limite do ano em um predicado proprio (ano >= / ano <=): com a tabela
+//particionada por ano (perfil particionado) e ele que permite ao planner descartar as particoes fora do intervalo
+public final class LancamentoSpecifications {
+
+    public static final char ESCAPE_LIKE = '\\';
+
+    private LancamentoSpecifications() {
+    }
+
+    public static Specification<Lancamento> doFiltro(LancamentoFilter filtro) {
+        return Specification
+                .where(doUsuario(filtro.getIdUsuario()))
+                .and(doAno(filtro.getAno()))
+                .and(doMes(filtro.getMes()))
+                .and(aPartirDe(filtro.getAnoInicial(), filtro.getMesInicial()))
+                .and(ate(filtro.getAnoFinal(), filtro.getMesFinal()))
+                .and(doTipo(filtro.getTipo()))
+                .and(doStatus(filtro.getStatus()))
+                .and(valorEntre(filtro.getValorMinimo(), filtro.getValorMaximo()))
+                .and(descricaoContendo(filtro.getDescricao()));
+    }
+
+    public static Specification<Lancamento> doUsuario(Long idUsuario) {
+        return idUsuario == null ? null : (root, query, cb) -> cb.equal(root.get("usuario").get("id"), idUsuario);
+    }
+
+    public static Specification<Lancamento> descricaoContendo(String descricao) {
+        return descricao == null || descricao.trim().isEmpty() ? null : (root, query, cb) ->
+                cb.like(cb.lower(root.get("descricao")), "%" + escaparLike(descricao.trim().toLowerCase()) + "%", ESCAPE_LIKE);
+    }
+
+    //% e _ digitados pelo usuario sao literais, nao curingas
+    public static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public static Specification<Lancamento> doMes(Integer mes) {
+        return mes == null ? null : (root, query, cb) -> cb.equal(root.get("mes"), mes);
+    }
+
+    public static Specification<Lancamento> doAno(Integer ano) {
+        return ano == null ? null : (root, query, cb) -> cb.equal(root.get("ano"), ano);
+    }
+
+    //(ano, mes) >= (ano inicial, mes inicial)
+    public static Specification<Lancamento> aPartirDe(Integer ano, Integer mes) {
+        if (ano == null)
+            return null;
+        if (mes == null)
+            return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("ano"), ano);
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("ano"), ano),
+                cb.or(cb.greaterThan(root.get("ano"), ano), cb.greaterThanOrEqualTo(root.get("mes"), mes)));
+    }
+
+    //(ano, mes) <= (ano final, mes final)
+    public static Specification<Lancamento> ate(Integer ano, Integer mes) {
+        if (ano == null)
+            return null;
+        if (mes == null)
+            return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("ano"), ano);
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("ano"), ano),
+                cb.or(cb.lessThan(root.get("ano"), ano), cb.lessThanOrEqualTo(root.get("mes"), mes)));
+    }
+
+    public static Specification<Lancamento> doTipo(TipoLancamento tipo) {
+        return tipo == null ? null : (root, query, cb) -> cb.equal(root.get("tipo"), tipo);
+    }
+
+    public static Specification<Lancamento> doStatus(StatusLancamento status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Lancamento> comStatusDiferenteDe(StatusLancamento status) {
+        return status == null ? null : (root, query, cb) -> cb.notEqual(root.get("status"), status);
+    }
+
+    public static Specification<Lancamento> dosIds(Collection<Long> ids) {
+        return ids == null ? null : (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Lancamento> naVersao(Long versao) {
+        return versao == null ? null : (root, query, cb) -> cb.equal(root.get("versao"), versao);
+    }
+
+    public static Specification<Lancamento> valorEntre(BigDecimal minimo, BigDecimal maximo) {
+        if (minimo == null && maximo == null)
+            return null;
+        if (maximo == null)
+            return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("valor"), minimo);
+        if (minimo == null)
+            return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("valor"), maximo);
+        return (root, query, cb) -> cb.between(root.get("valor"), minimo, maximo);
+    }
+
+    //(ano, mes, id) > (cursor.ano, cursor.mes, cursor.id)
+    public static Specification<Lancamento> aposCursor(CursorLancamento cursor) {
+        return cursor == null ? null : (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("ano"), cursor.getAno()),
+                cb.or(cb.greaterThan(root.get("ano"), cursor.getAno()),
+                        cb.and(cb.equal(root.get("ano"), cursor.getAno()),
+                                cb.or(cb.greaterThan(root.get("mes"), cursor.getMes()),
+                                        cb.and(cb.equal(root.get("mes"), cursor.getMes()),
+                                                cb.greaterThan(root.get("id"), cursor.getId()))))));
+    }
+
+}
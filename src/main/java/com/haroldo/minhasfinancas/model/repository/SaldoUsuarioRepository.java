@@ -0,0 +1,42 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+    //Le apenas as linhas de resumo do usuario, independente da quantidade de lancamentos
+    //Retorna vazio quando o usuario nao existe
+    @Query(value = "select new com.haroldo.minhasfinancas.api.dto.SaldoDTO( " +
+            "sum(case when s.tipo = com.haroldo.minhasfinancas.model.enums.TipoLancamento.RECEITA then s.valor else 0 end), " +
+            "sum(case when s.tipo = com.haroldo.minhasfinancas.model.enums.TipoLancamento.DESPESA then s.valor else 0 end)) " +
+            "from Usuario u left join SaldoUsuario s on s.idUsuario = u.id " +
+            "where u.id = :idUsuario group by u.id")
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = LancamentoRepository.REGIAO_AGREGADOS)})
+    Optional<SaldoDTO> obterSaldoUsuario(@Param("idUsuario") Long idUsuario);
+
+    //Proximo bloco de usuarios da reconciliacao, paginado pela chave
+    @Query(value = "select u.id from Usuario u where u.id > :aposId order by u.id")
+    List<Long> buscarIdsUsuarios(@Param("aposId") Long aposId, Pageable pageable);
+
+    //Linhas de resumo dos usuarios fora do contexto de persistencia: a reconciliacao so le e corrige por delta
+    @Query(value = "select new com.haroldo.minhasfinancas.model.entity.SaldoUsuario( " +
+            "s.id, s.idUsuario, s.ano, s.mes, s.tipo, s.status, s.valor, s.quantidade) " +
+            "from SaldoUsuario s where s.idUsuario in :idsUsuarios")
+    List<SaldoUsuario> buscarPorUsuarios(@Param("idsUsuarios") Collection<Long> idsUsuarios);
+
+}
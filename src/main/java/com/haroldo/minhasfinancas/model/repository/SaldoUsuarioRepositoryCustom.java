@@ -0,0 +1,18 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+    //Soma o delta na linha do resumo ou cria a linha com o delta, em um unico comando (upsert)
+    void aplicarDelta(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+                      BigDecimal valor, Long quantidade);
+
+    //Impede escritas em financas.lancamento ate o fim da transacao (e outra reconciliacao ao mesmo tempo),
+    //aguardando as que ja estao em andamento
+    void bloquearLancamentos();
+
+}
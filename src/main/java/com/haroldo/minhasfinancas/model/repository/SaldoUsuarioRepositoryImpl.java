@@ -0,0 +1,71 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.sql.Statement;
+
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+    //Duas primeiras escritas concorrentes na mesma chave: a segunda espera a primeira e soma na linha criada,
+    //em vez de falhar em uk_saldo_usuario_chave
+    private static final String UPSERT_POSTGRES = "insert into financas.saldo_usuario as s " +
+            "(id_usuario, ano, mes, tipo, status, valor, quantidade) " +
+            "values (:idUsuario, :ano, :mes, :tipo, :status, :valor, :quantidade) " +
+            "on conflict (id_usuario, ano, mes, tipo, status) " +
+            "do update set valor = s.valor + excluded.valor, quantidade = s.quantidade + excluded.quantidade";
+
+    private static final String MERGE_H2 = "merge into financas.saldo_usuario s using (select 1) d " +
+            "on (s.id_usuario = :idUsuario and s.ano = :ano and s.mes = :mes and s.tipo = :tipo and s.status = :status) " +
+            "when matched then update set valor = s.valor + :valor, quantidade = s.quantidade + :quantidade " +
+            "when not matched then insert (id_usuario, ano, mes, tipo, status, valor, quantidade) " +
+            "values (:idUsuario, :ano, :mes, :tipo, :status, :valor, :quantidade)";
+
+    //share row exclusive conflita com o row exclusive das escritas e com ele mesmo, mas nao com as leituras
+    private static final String BLOQUEIO_POSTGRES = "lock table financas.lancamento in share row exclusive mode";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void aplicarDelta(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+                             BigDecimal valor, Long quantidade) {
+
+        entityManager.createNativeQuery(BancoDeDados.postgres(entityManager) ? UPSERT_POSTGRES : MERGE_H2)
+                //Invalida apenas o cache de consultas que le o resumo, nao todo o cache de segundo nivel
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SaldoUsuario.class)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("ano", ano)
+                .setParameter("mes", mes)
+                .setParameter("tipo", tipo.name())
+                .setParameter("status", status.name())
+                .setParameter("valor", valor)
+                .setParameter("quantidade", quantidade)
+                .executeUpdate();
+
+    }
+
+    //No H2, usado apenas nos testes, nao ha escritas concorrentes para aguardar
+    @Override
+    public void bloquearLancamentos() {
+
+        if (!BancoDeDados.postgres(entityManager))
+            return;
+
+        //Direto pela conexao: um comando nativo pelo Hibernate invalidaria todo o cache de segundo nivel
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (Statement statement = conexao.createStatement()) {
+                statement.execute(BLOQUEIO_POSTGRES);
+            }
+        });
+
+    }
+
+}
@@ -1,16 +1,28 @@
 package com.haroldo.minhasfinancas.model.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.haroldo.minhasfinancas.model.entity.Usuario;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
 	//Query methods
-	boolean existsByEmail(String email);
+	//lower(email) para usar o indice unico ux_usuario_email (V2__indices.sql)
+	@Query("select count(u) > 0 from Usuario u where lower(u.email) = lower(:email)")
+	boolean existsByEmail(@Param("email") String email);
 
-	Optional<Usuario> findByEmail(String email);
+	//O cache de consultas guarda apenas o id, a entidade vem do cache de segundo nivel
+	@QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = "usuario-por-email")})
+	@Query("select u from Usuario u where lower(u.email) = lower(:email)")
+	Optional<Usuario> findByEmail(@Param("email") String email);
 
 }
@@ -0,0 +1,15 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.model.entity.VersaoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface VersaoUsuarioRepository extends JpaRepository<VersaoUsuario, Long>, VersaoUsuarioRepositoryCustom {
+
+    @Query(value = "select v.versao from VersaoUsuario v where v.idUsuario = :idUsuario")
+    Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+
+}
@@ -0,0 +1,8 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+public interface VersaoUsuarioRepositoryCustom {
+
+    //Incrementa a versao do usuario ou cria a linha com a versao 1, em um unico comando (upsert)
+    void incrementar(Long idUsuario);
+
+}
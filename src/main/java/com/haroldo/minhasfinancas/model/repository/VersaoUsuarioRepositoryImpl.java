@@ -0,0 +1,34 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.model.entity.VersaoUsuario;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class VersaoUsuarioRepositoryImpl implements VersaoUsuarioRepositoryCustom {
+
+    private static final String UPSERT_POSTGRES = "insert into financas.versao_usuario as v (id_usuario, versao) " +
+            "values (:idUsuario, 1) " +
+            "on conflict (id_usuario) do update set versao = v.versao + 1";
+
+    private static final String MERGE_H2 = "merge into financas.versao_usuario v using (select 1) d " +
+            "on (v.id_usuario = :idUsuario) " +
+            "when matched then update set versao = v.versao + 1 " +
+            "when not matched then insert (id_usuario, versao) values (:idUsuario, 1)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void incrementar(Long idUsuario) {
+
+        entityManager.createNativeQuery(BancoDeDados.postgres(entityManager) ? UPSERT_POSTGRES : MERGE_H2)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(VersaoUsuario.class)
+                .setParameter("idUsuario", idUsuario)
+                .executeUpdate();
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+//Usuarios que gravaram dentro da janela e a leitura em andamento na thread que precisa do primario
+class ConsistenciaLeitura {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> escritasRecentes;
+
+    ConsistenciaLeitura(Duration janela, long tamanhoMaximo) {
+        this.escritasRecentes = Caffeine.newBuilder()
+                .expireAfterWrite(janela)
+                .maximumSize(tamanhoMaximo)
+                .build();
+    }
+
+    void registrarEscrita(Long idUsuario) {
+        if (idUsuario != null)
+            escritasRecentes.put(idUsuario, Boolean.TRUE);
+    }
+
+    boolean gravouRecentemente(Long idUsuario) {
+        return idUsuario != null && escritasRecentes.getIfPresent(idUsuario) != null;
+    }
+
+    //Retorna o valor anterior para ser devolvido em restaurar, leituras podem ser aninhadas
+    static Boolean lerDoPrimario() {
+        Boolean anterior = PRIMARIO.get();
+        PRIMARIO.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    static void restaurar(Boolean anterior) {
+        if (anterior == null)
+            PRIMARIO.remove();
+        else
+            PRIMARIO.set(anterior);
+    }
+
+    static boolean exigePrimario() {
+        return Boolean.TRUE.equals(PRIMARIO.get());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Escrita nos dados de um usuario: inicia a janela em que as leituras dele vao para o primario
+//value: expressao SpEL que resulta no id do usuario ou em uma colecao de ids; #result e o retorno do metodo
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EscritaDoUsuario {
+
+    String value();
+
+}
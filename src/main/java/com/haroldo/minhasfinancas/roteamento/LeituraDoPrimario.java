@@ -0,0 +1,14 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Leitura readOnly que sempre vai para o primario, como a de uma entidade que sera alterada em seguida
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LeituraDoPrimario {
+}
@@ -0,0 +1,18 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Leitura dos dados de um usuario: vai para o primario, e nao para a replica, se ele gravou ha pouco
+//value: expressao SpEL sobre os parametros que resulta no id do usuario, como nas anotacoes de cache
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LeituraDoUsuario {
+
+    String value();
+
+}
@@ -0,0 +1,35 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+//Transacoes readOnly vao para a replica, o resto para o primario
+//Precisa estar dentro de um LazyConnectionDataSourceProxy: a conexao so pode ser escolhida depois
+//que a transacao foi marcada como readOnly, no primeiro comando enviado ao banco
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino {PRIMARIO, REPLICA}
+
+    RoteamentoDataSource(DataSource primario, DataSource replica) {
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(Destino.PRIMARIO, primario);
+        destinos.put(Destino.REPLICA, replica);
+
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ConsistenciaLeitura.exigePrimario()
+                ? Destino.REPLICA
+                : Destino.PRIMARIO;
+    }
+
+}
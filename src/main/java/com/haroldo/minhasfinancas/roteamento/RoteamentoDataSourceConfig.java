@@ -0,0 +1,75 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+//Ativado por minhasfinancas.datasource.replica.url: dois pools Hikari, o primario (spring.datasource.*)
+//e o da replica (minhasfinancas.datasource.replica.*), atras do bean "dataSource" usado por JPA e Flyway
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.datasource.replica.url")
+public class RoteamentoDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("minhasfinancas.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("minhasfinancas.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+
+        HikariDataSource replica = replicaDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        replica.setReadOnly(true);
+        return replica;
+
+    }
+
+    //Nome "dataSource": e o bean envolvido pelo datasource-proxy do DiagnosticoConfig
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(primario, replica);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+
+    }
+
+    @Bean
+    ConsistenciaLeitura consistenciaLeitura(@Value("${minhasfinancas.datasource.replica.janela-consistencia:5s}") Duration janela,
+                                            @Value("${minhasfinancas.datasource.replica.usuarios-na-janela:100000}") long tamanhoMaximo) {
+        return new ConsistenciaLeitura(janela, tamanhoMaximo);
+    }
+
+    @Bean
+    RoteamentoUsuarioAspect roteamentoUsuarioAspect(ConsistenciaLeitura consistenciaLeitura) {
+        return new RoteamentoUsuarioAspect(consistenciaLeitura);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Leitura consistente com as proprias escritas: quem gravou dentro da janela le do primario
+@Aspect
+class RoteamentoUsuarioAspect {
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer nomesParametros = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressoes = new ConcurrentHashMap<>();
+
+    private final ConsistenciaLeitura consistencia;
+
+    RoteamentoUsuarioAspect(ConsistenciaLeitura consistencia) {
+        this.consistencia = consistencia;
+    }
+
+    @Around("@annotation(leitura)")
+    public Object ler(ProceedingJoinPoint joinPoint, LeituraDoUsuario leitura) throws Throwable {
+
+        Object idUsuario = avaliar(joinPoint, leitura.value());
+        if (!(idUsuario instanceof Long) || !consistencia.gravouRecentemente((Long) idUsuario))
+            return joinPoint.proceed();
+
+        return lerDoPrimario(joinPoint);
+
+    }
+
+    @Around("@annotation(com.haroldo.minhasfinancas.roteamento.LeituraDoPrimario)")
+    public Object lerDoPrimario(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        Boolean anterior = ConsistenciaLeitura.lerDoPrimario();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConsistenciaLeitura.restaurar(anterior);
+        }
+
+    }
+
+    @AfterReturning(pointcut = "@annotation(escrita)", returning = "resultado")
+    public void registrar(JoinPoint joinPoint, EscritaDoUsuario escrita, Object resultado) {
+
+        Object usuarios = avaliar(joinPoint, escrita.value(), resultado);
+        if (usuarios instanceof Collection) {
+            for (Object idUsuario : (Collection<?>) usuarios) {
+                if (idUsuario instanceof Long)
+                    consistencia.registrarEscrita((Long) idUsuario);
+            }
+        } else if (usuarios instanceof Long) {
+            consistencia.registrarEscrita((Long) usuarios);
+        }
+
+    }
+
+    private Object avaliar(JoinPoint joinPoint, String expressao) {
+        return avaliar(joinPoint, expressao, null);
+    }
+
+    //Nas escritas o retorno do metodo fica disponivel como #result, como nas anotacoes de cache
+    private Object avaliar(JoinPoint joinPoint, String expressao, Object resultado) {
+
+        MethodSignature assinatura = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext contexto = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), assinatura.getMethod(), joinPoint.getArgs(), nomesParametros);
+        contexto.setVariable("result", resultado);
+
+        return expressoes.computeIfAbsent(expressao, parser::parseExpression).getValue(contexto);
+
+    }
+
+}
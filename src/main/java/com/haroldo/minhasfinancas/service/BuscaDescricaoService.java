@@ -0,0 +1,14 @@
+package com.haroldo.minhasfinancas.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface BuscaDescricaoService {
+
+    //Ids dos lancamentos do usuario ordenados pela relevancia da descricao em relacao ao termo
+    Page<Long> buscarIds(Long idUsuario, String termo, Pageable pageable);
+
+    //Chamado a cada escrita nos lancamentos do usuario
+    void invalidar(Long idUsuario);
+
+}
@@ -0,0 +1,13 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.api.arquivo.LinhaImportacao;
+import com.haroldo.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+
+import java.util.Iterator;
+
+public interface ImportacaoLancamentoService {
+
+    ImportacaoResultadoDTO importar(Usuario usuario, Iterator<LinhaImportacao> linhas);
+
+}
@@ -1,11 +1,20 @@
 package com.haroldo.minhasfinancas.service;
 
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.PaginaCursorDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
 
@@ -13,16 +22,44 @@ public interface LancamentoService {
 
     Lancamento atualizar(Lancamento lancamento);
 
+    //Vazio quando o lancamento nao existe ou, com idUsuario, e de outro usuario; sem versao vale a atual
+    Optional<Lancamento> atualizar(Lancamento lancamento, Long idUsuario);
+
     void deletar(Lancamento lancamento);
 
-    List<Lancamento> buscar(Lancamento lancamento);
+    //Com versao, lanca ObjectOptimisticLockingFailureException se o lancamento existe em outra versao;
+    //com idUsuario, o lancamento de outro usuario e tratado como inexistente
+    int deletarPorId(Long id, Long idUsuario, Long versao);
+
+    List<LancamentoResumoDTO> buscar(LancamentoFilter filtro);
+
+    Page<LancamentoResumoDTO> buscar(LancamentoFilter filtro, Pageable pageable);
+
+    PaginaCursorDTO<LancamentoResumoDTO> buscar(LancamentoFilter filtro, CursorLancamento cursor, int tamanho);
+
+    void exportar(LancamentoFilter filtro, Consumer<LancamentoResumoDTO> destino);
+
+    Page<LancamentoResumoDTO> buscarPorDescricao(Long idUsuario, String termo, Pageable pageable);
 
     void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+    int atualizarStatusPorId(Long id, Long idUsuario, Long versao, StatusLancamento status);
+
+    int atualizarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status);
+
+    int atualizarStatus(LancamentoFilter filtro, StatusLancamento status);
+
     void validar(Lancamento lancamento);
 
     Optional<Lancamento> opterPorId(Long id);
 
+    Optional<LancamentoResumoDTO> obterResumoPorId(Long id);
+
     BigDecimal obterSaldoPorUsuario(Long id);
 
+    Optional<SaldoDTO> obterResumoSaldoPorUsuario(Long id);
+
+    //ETag das listagens e do saldo do usuario
+    long obterVersaoLancamentos(Long idUsuario);
+
 }
@@ -0,0 +1,11 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+
+import java.util.List;
+
+public interface RelatorioService {
+
+    List<RelatorioItemDTO> gerarRelatorio(Long idUsuario, Integer anoInicial, Integer mesInicial, Integer anoFinal, Integer mesFinal);
+
+}
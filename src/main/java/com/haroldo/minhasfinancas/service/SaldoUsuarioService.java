@@ -0,0 +1,33 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.api.dto.DivergenciaSaldoDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoUsuarioService {
+
+    void registrar(Lancamento lancamento);
+
+    void registrar(Collection<Lancamento> lancamentos);
+
+    void estornar(Lancamento lancamento);
+
+    //Totais de lancamentos do usuario alterados ou removidos por update/delete direto, sem carregar entidades
+    void alterarStatus(Long idUsuario, Collection<SaldoUsuario> totais, StatusLancamento status);
+
+    void estornar(Long idUsuario, Collection<SaldoUsuario> totais);
+
+    Optional<SaldoDTO> obterSaldoPorUsuario(Long idUsuario);
+
+    //Versao dos lancamentos e do saldo do usuario, incrementada a cada escrita; 0 quando nunca houve escrita
+    long obterVersaoLancamentos(Long idUsuario);
+
+    List<DivergenciaSaldoDTO> reconciliar();
+
+}
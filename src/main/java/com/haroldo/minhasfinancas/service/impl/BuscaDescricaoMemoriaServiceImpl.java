@@ -0,0 +1,188 @@
+package com.haroldo.minhasfinancas.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.haroldo.minhasfinancas.model.repository.DescricaoLancamento;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.service.BuscaDescricaoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+//Indice invertido em memoria das palavras da descricao, por usuario, para bancos sem pg_trgm (H2)
+//O indice de um usuario e montado na primeira busca e descartado apos o commit de cada escrita nos lancamentos dele;
+//apenas os usuarios usados mais recentemente ficam em memoria
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca-descricao.modo", havingValue = "memoria", matchIfMissing = true)
+public class BuscaDescricaoMemoriaServiceImpl implements BuscaDescricaoService {
+
+    private static final double PESO_PALAVRA_EXATA = 1.0;
+    private static final double PESO_PREFIXO = 0.5;
+
+    private final LancamentoRepository repository;
+
+    //O valor e o futuro do indice: a leitura do banco acontece fora do lock do mapa e as buscas
+    //concorrentes do mesmo usuario aguardam a mesma montagem
+    private final Cache<Long, CompletableFuture<NavigableMap<String, Set<Long>>>> indices;
+
+    public BuscaDescricaoMemoriaServiceImpl(
+            LancamentoRepository repository,
+            @Value("${minhasfinancas.busca-descricao.memoria.tamanho-maximo:1000}") long tamanhoMaximo) {
+
+        super();
+        this.repository = repository;
+        this.indices = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .build();
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Long> buscarIds(Long idUsuario, String termo, Pageable pageable) {
+
+        List<String> palavras = tokenizar(termo);
+
+        if (palavras.isEmpty())
+            return Page.empty(pageable);
+
+        NavigableMap<String, Set<Long>> indice = indice(idUsuario);
+
+        //Cada palavra do termo precisa aparecer na descricao, exata ou como prefixo
+        Map<Long, Double> relevancia = null;
+        for (String palavra : palavras) {
+
+            Map<Long, Double> pontos = pontuar(indice, palavra);
+
+            if (relevancia == null) {
+                relevancia = pontos;
+            } else {
+                relevancia.keySet().retainAll(pontos.keySet());
+                relevancia.replaceAll((id, valor) -> valor + pontos.get(id));
+            }
+
+        }
+
+        List<Long> ids = relevancia.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        int inicio = (int) Math.min(pageable.getOffset(), ids.size());
+        int fim = Math.min(inicio + pageable.getPageSize(), ids.size());
+
+        return new PageImpl<>(new ArrayList<>(ids.subList(inicio, fim)), pageable, ids.size());
+
+    }
+
+    //Dentro de uma transacao o descarte espera o commit: descartado antes, uma busca concorrente
+    //remontaria o indice com os dados ainda sem a escrita
+    @Override
+    public void invalidar(Long idUsuario) {
+
+        if (idUsuario == null)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indices.invalidate(idUsuario);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indices.invalidate(idUsuario);
+            }
+        });
+
+    }
+
+    private NavigableMap<String, Set<Long>> indice(Long idUsuario) {
+
+        CompletableFuture<NavigableMap<String, Set<Long>>> novo = new CompletableFuture<>();
+        CompletableFuture<NavigableMap<String, Set<Long>>> atual = indices.asMap().putIfAbsent(idUsuario, novo);
+
+        if (atual != null)
+            return atual.join();
+
+        try {
+            novo.complete(indexar(idUsuario));
+        } catch (RuntimeException e) {
+            indices.asMap().remove(idUsuario, novo);
+            novo.completeExceptionally(e);
+            throw e;
+        }
+
+        return novo.join();
+
+    }
+
+    private Map<Long, Double> pontuar(NavigableMap<String, Set<Long>> indice, String palavra) {
+
+        Map<Long, Double> pontos = new HashMap<>();
+
+        for (Map.Entry<String, Set<Long>> entrada : indice.subMap(palavra, true, palavra + Character.MAX_VALUE, false).entrySet()) {
+            double peso = entrada.getKey().equals(palavra) ? PESO_PALAVRA_EXATA : PESO_PREFIXO;
+            for (Long id : entrada.getValue()) {
+                pontos.merge(id, peso, Math::max);
+            }
+        }
+
+        return pontos;
+
+    }
+
+    private NavigableMap<String, Set<Long>> indexar(Long idUsuario) {
+
+        NavigableMap<String, Set<Long>> indice = new TreeMap<>();
+
+        for (DescricaoLancamento lancamento : repository.findDescricoesByUsuario(idUsuario)) {
+            for (String palavra : tokenizar(lancamento.getDescricao())) {
+                indice.computeIfAbsent(palavra, p -> new HashSet<>()).add(lancamento.getId());
+            }
+        }
+
+        return Collections.unmodifiableNavigableMap(indice);
+
+    }
+
+    static List<String> tokenizar(String texto) {
+
+        if (texto == null)
+            return Collections.emptyList();
+
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(semAcentos.split("[^\\p{Alnum}]+"))
+                .filter(palavra -> !palavra.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+
+    }
+
+}
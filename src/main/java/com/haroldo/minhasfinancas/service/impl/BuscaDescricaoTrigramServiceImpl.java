@@ -0,0 +1,40 @@
+package com.haroldo.minhasfinancas.service.impl;
+
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoSpecifications;
+import com.haroldo.minhasfinancas.service.BuscaDescricaoService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+//Busca no Postgres usando o indice pg_trgm, a ordenacao vem da propria consulta
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.busca-descricao.modo", havingValue = "trigram")
+public class BuscaDescricaoTrigramServiceImpl implements BuscaDescricaoService {
+
+    private final LancamentoRepository repository;
+
+    public BuscaDescricaoTrigramServiceImpl(LancamentoRepository repository) {
+
+        super();
+        this.repository = repository;
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Long> buscarIds(Long idUsuario, String termo, Pageable pageable) {
+        return repository.buscarIdsPorSimilaridadeDaDescricao(idUsuario, termo,
+                "%" + LancamentoSpecifications.escaparLike(termo) + "%",
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    @Override
+    public void invalidar(Long idUsuario) {
+        //O indice e mantido pelo proprio banco
+    }
+
+}
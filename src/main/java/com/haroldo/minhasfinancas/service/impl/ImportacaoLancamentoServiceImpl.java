@@ -0,0 +1,179 @@
+package com.haroldo.minhasfinancas.service.impl;
+
+import com.haroldo.minhasfinancas.api.arquivo.LinhaImportacao;
+import com.haroldo.minhasfinancas.api.dto.ErroImportacaoDTO;
+import com.haroldo.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.haroldo.minhasfinancas.api.dto.LancamentoDTO;
+import com.haroldo.minhasfinancas.config.CacheConfig;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.metricas.ContadorExcecoes;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.service.BuscaDescricaoService;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
+import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.SaldoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+@Slf4j
+@Service
+public class ImportacaoLancamentoServiceImpl implements ImportacaoLancamentoService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LancamentoService lancamentoService;
+    private final SaldoUsuarioService saldoUsuarioService;
+    private final BuscaDescricaoService buscaDescricaoService;
+    private final int tamanhoLote;
+
+    public ImportacaoLancamentoServiceImpl(
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            LancamentoService lancamentoService,
+            SaldoUsuarioService saldoUsuarioService,
+            BuscaDescricaoService buscaDescricaoService,
+            @Value("${minhasfinancas.importacao.tamanho-lote:500}") int tamanhoLote) {
+
+        super();
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lancamentoService = lancamentoService;
+        this.saldoUsuarioService = saldoUsuarioService;
+        this.buscaDescricaoService = buscaDescricaoService;
+        this.tamanhoLote = tamanhoLote;
+
+    }
+
+    //Os lotes sao gravados em transacoes separadas: o saldo sai do cache antes da importacao
+    //e novamente ao final, descartando o que tenha sido lido entre os lotes
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#usuario.id", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#usuario.id")
+    })
+    public ImportacaoResultadoDTO importar(Usuario usuario, Iterator<LinhaImportacao> linhas) {
+
+        long inicio = System.nanoTime();
+        int lidas = 0;
+        int importadas = 0;
+        List<ErroImportacaoDTO> erros = new ArrayList<>();
+        List<Lancamento> lote = new ArrayList<>(tamanhoLote);
+
+        while (linhas.hasNext()) {
+
+            //Um erro de leitura (JSON mal formado) interrompe o arquivo, mas os lotes ja gravados ficam: o
+            //lote pendente tambem e gravado e o resultado informa ate onde a importacao chegou
+            LinhaImportacao linha;
+            try {
+                linha = linhas.next();
+            } catch (RegraNegocioException e) {
+                ContadorExcecoes.contar(e);
+                erros.add(new ErroImportacaoDTO(lidas + 1, e.getMessage()));
+                break;
+            }
+            lidas++;
+
+            if (linha.getErro() != null) {
+                erros.add(new ErroImportacaoDTO(linha.getNumero(), linha.getErro()));
+                continue;
+            }
+
+            try {
+
+                Lancamento lancamento = converter(linha.getLancamento(), usuario);
+                lancamentoService.validar(lancamento);
+                lote.add(lancamento);
+
+            } catch (RegraNegocioException e) {
+
+                ContadorExcecoes.contar(e);
+                erros.add(new ErroImportacaoDTO(linha.getNumero(), e.getMessage()));
+
+            } catch (IllegalArgumentException e) {
+
+                erros.add(new ErroImportacaoDTO(linha.getNumero(), "Tipo ou status de lançamento inválido."));
+
+            }
+
+            if (lote.size() == tamanhoLote) {
+                importadas += gravar(lote);
+                lote.clear();
+            }
+
+        }
+
+        if (!lote.isEmpty())
+            importadas += gravar(lote);
+
+        if (importadas > 0)
+            buscaDescricaoService.invalidar(usuario.getId());
+
+        long tempoMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+
+        log.info("Importacao do usuario {}: {} linhas lidas, {} importadas em {} ms", usuario.getId(), lidas, importadas, tempoMs);
+
+        return ImportacaoResultadoDTO.builder()
+                .linhasLidas(lidas)
+                .linhasImportadas(importadas)
+                .erros(erros)
+                .tempoMs(tempoMs)
+                .linhasPorSegundo(importadas * 1000L / tempoMs)
+                .build();
+
+    }
+
+    //Cada lote e gravado em uma transacao propria: os inserts seguem em lotes JDBC e o contexto
+    //de persistencia e limpo ao final, mantendo a memoria constante durante a importacao
+    private int gravar(List<Lancamento> lote) {
+
+        return transactionTemplate.execute(status -> {
+
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+
+            lote.forEach(entityManager::persist);
+            entityManager.flush();
+
+            saldoUsuarioService.registrar(lote);
+            entityManager.flush();
+            entityManager.clear();
+
+            return lote.size();
+
+        });
+
+    }
+
+    private Lancamento converter(LancamentoDTO dto, Usuario usuario) {
+
+        Lancamento lancamento = new Lancamento();
+
+        lancamento.setDescricao(dto.getDescricao());
+        lancamento.setAno(dto.getAno());
+        lancamento.setMes(dto.getMes());
+        lancamento.setValor(dto.getValor());
+        lancamento.setUsuario(usuario);
+
+        if (dto.getTipo() != null)
+            lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+
+        lancamento.setStatus(dto.getStatus() == null ? StatusLancamento.PENDENTE : StatusLancamento.valueOf(dto.getStatus()));
+
+        return lancamento;
+
+    }
+
+}
@@ -1,30 +1,71 @@
 package com.haroldo.minhasfinancas.service.impl;
 
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.PaginaCursorDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
-import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
 import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoSpecifications;
+import com.haroldo.minhasfinancas.roteamento.LeituraDoPrimario;
+import com.haroldo.minhasfinancas.roteamento.LeituraDoUsuario;
+import com.haroldo.minhasfinancas.service.BuscaDescricaoService;
 import com.haroldo.minhasfinancas.service.LancamentoService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import com.haroldo.minhasfinancas.service.SaldoUsuarioService;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
+    public static final int TAMANHO_MAXIMO_PAGINA = 1000;
+
+    public static final int TAMANHO_MAXIMO_LOTE_STATUS = 1000;
+
+    private static final Sort ORDEM_CURSOR = Sort.by("ano", "mes", "id");
+
+    //Apenas colunas do proprio lancamento: um caminho como usuario.senha faria join e ordenaria por outra tabela
+    private static final Set<String> CAMPOS_ORDENACAO = Set.of("descricao", "ano", "mes", "valor", "tipo", "status", "dataCadastro", "id");
+
     private final LancamentoRepository repository;
+    private final SaldoUsuarioService saldoUsuarioService;
+    private final BuscaDescricaoService buscaDescricaoService;
 
-    public LancamentoServiceImpl(LancamentoRepository repository) {
+    public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoUsuarioService,
+                                 BuscaDescricaoService buscaDescricaoService) {
 
         super();
         this.repository = repository;
+        this.saldoUsuarioService = saldoUsuarioService;
+        this.buscaDescricaoService = buscaDescricaoService;
 
     }
 
@@ -55,26 +96,40 @@ public class LancamentoServiceImpl implements LancamentoService {
         }
     }
 
+    //Entidade que sera alterada em seguida: a versao lida precisa ser a do primario
     @Override
+    @LeituraDoPrimario
     public Optional<Lancamento> opterPorId(Long id) {
         return repository.findById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public BigDecimal obterSaldoPorUsuario(Long id) {
+    public Optional<LancamentoResumoDTO> obterResumoPorId(Long id) {
+        return repository.findResumoById(id);
+    }
 
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoUsuario(id, TipoLancamento.RECEITA);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoUsuario(id, TipoLancamento.DESPESA);
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#id")
+    public BigDecimal obterSaldoPorUsuario(Long id) {
 
-        if (receitas == null)
-            receitas = BigDecimal.ZERO;
+        return obterResumoSaldoPorUsuario(id)
+                .map(SaldoDTO::getSaldo)
+                .orElse(BigDecimal.ZERO);
 
-        if (despesas == null)
-            despesas = BigDecimal.ZERO;
+    }
 
-        return receitas.subtract(despesas);
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#id")
+    public Optional<SaldoDTO> obterResumoSaldoPorUsuario(Long id) {
+        return saldoUsuarioService.obterSaldoPorUsuario(id);
+    }
 
+    @Override
+    public long obterVersaoLancamentos(Long idUsuario) {
+        return saldoUsuarioService.obterVersaoLancamentos(idUsuario);
     }
 
     @Override
@@ -82,14 +137,55 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento salvar(Lancamento lancamento) {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
-        return repository.save(lancamento);
+        Lancamento salvo = repository.save(lancamento);
+        saldoUsuarioService.registrar(salvo);
+        invalidarBuscaDescricao(salvo);
+        return salvo;
     }
 
     @Override
     @Transactional
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
-        return repository.save(lancamento);
+
+        Optional<Lancamento> atual = repository.findById(lancamento.getId());
+        atual.ifPresent(encontrado -> estornarAtual(lancamento, encontrado));
+
+        return registrar(lancamento);
+    }
+
+    //O PUT: o lancamento e lido uma unica vez, ja na transacao da escrita, e o merge usa a mesma instancia
+    @Override
+    @Transactional
+    public Optional<Lancamento> atualizar(Lancamento lancamento, Long idUsuario) {
+        Objects.requireNonNull(lancamento.getId());
+
+        return repository.findById(lancamento.getId())
+                .filter(atual -> idUsuario == null || atual.getUsuario() != null && idUsuario.equals(atual.getUsuario().getId()))
+                .map(atual -> {
+                    estornarAtual(lancamento, atual);
+                    return registrar(lancamento);
+                });
+    }
+
+    //Copia os valores atuais antes do merge para estornar do resumo de saldo
+    private void estornarAtual(Lancamento lancamento, Lancamento atual) {
+
+        //Sem versao informada vale a atual; com versao, o merge falha se ela ja mudou
+        if (lancamento.getVersao() == null)
+            lancamento.setVersao(atual.getVersao());
+
+        Lancamento anterior = copiarValoresDoSaldo(atual);
+        saldoUsuarioService.estornar(anterior);
+        invalidarBuscaDescricao(anterior);
+
+    }
+
+    private Lancamento registrar(Lancamento lancamento) {
+        Lancamento salvo = repository.save(lancamento);
+        saldoUsuarioService.registrar(salvo);
+        invalidarBuscaDescricao(salvo);
+        return salvo;
     }
 
     @Override
@@ -97,17 +193,112 @@ public class LancamentoServiceImpl implements LancamentoService {
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
         repository.delete(lancamento);
+        saldoUsuarioService.estornar(lancamento);
+        invalidarBuscaDescricao(lancamento);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#filtro.idUsuario")
+    public List<LancamentoResumoDTO> buscar(LancamentoFilter filtro) {
+        return repository.buscarResumos(criarSpecification(filtro), Sort.unsorted());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#filtro.idUsuario")
+    public Page<LancamentoResumoDTO> buscar(LancamentoFilter filtro, Pageable pageable) {
+
+        Specification<Lancamento> specification = criarSpecification(filtro);
+
+        if (pageable.isUnpaged())
+            return repository.buscarResumos(specification, pageable);
+
+        return repository.buscarResumos(specification,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordenacao(pageable.getSort())));
+
+    }
+
+    //O offset so e estavel com uma ordem total: sem sort vale (ano, mes, id) e o id sempre desempata
+    private Sort ordenacao(Sort sort) {
+
+        if (sort.isUnsorted())
+            return ORDEM_CURSOR;
+
+        for (Sort.Order ordem : sort) {
+            if (!CAMPOS_ORDENACAO.contains(ordem.getProperty())) {
+                throw new RegraNegocioException("Não é possível ordenar por " + ordem.getProperty() + ".");
+            }
+        }
+
+        return sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#filtro.idUsuario")
+    public PaginaCursorDTO<LancamentoResumoDTO> buscar(LancamentoFilter filtro, CursorLancamento cursor, int tamanho) {
+
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new RegraNegocioException("Informe um tamanho de página entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+
+        Specification<Lancamento> specification = criarSpecification(filtro)
+                .and(LancamentoSpecifications.aposCursor(cursor));
+
+        //Busca um registro a mais apenas para saber se existe proxima pagina
+        List<LancamentoResumoDTO> lancamentos = repository.buscarResumosLimitado(specification, ORDEM_CURSOR, tamanho + 1);
+
+        boolean possuiProximo = lancamentos.size() > tamanho;
+        if (possuiProximo)
+            lancamentos = lancamentos.subList(0, tamanho);
+
+        return PaginaCursorDTO.<LancamentoResumoDTO>builder()
+                .conteudo(lancamentos)
+                .tamanho(lancamentos.size())
+                .possuiProximo(possuiProximo)
+                .proximoCursor(possuiProximo ? CursorLancamento.de(lancamentos.get(tamanho - 1)).codificar() : null)
+                .build();
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#filtro.idUsuario")
+    public void exportar(LancamentoFilter filtro, Consumer<LancamentoResumoDTO> destino) {
+
+        //O cursor permanece aberto enquanto a transacao durar, cada linha segue direto para o destino
+        try (Stream<LancamentoResumoDTO> lancamentos = repository.transmitirResumos(criarSpecification(filtro), ORDEM_CURSOR)) {
+            lancamentos.forEach(destino);
+        }
+
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example<Lancamento> example = Example.of(lancamentoFiltro,
-                ExampleMatcher.matching()
-                        .withIgnoreCase()
-                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+    @LeituraDoUsuario("#idUsuario")
+    public Page<LancamentoResumoDTO> buscarPorDescricao(Long idUsuario, String termo, Pageable pageable) {
+
+        if (termo == null || termo.trim().isEmpty()) {
+            throw new RegraNegocioException("Informe um termo para a busca.");
+        }
+
+        Page<Long> ids = buscaDescricaoService.buscarIds(idUsuario, termo.trim(), pageable);
+
+        //A consulta por ids nao garante a ordem, reordena pela relevancia
+        Map<Long, LancamentoResumoDTO> lancamentos = ids.isEmpty() ? Collections.emptyMap()
+                : repository.findResumosByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(LancamentoResumoDTO::getId, Function.identity()));
+
+        //Lancamentos excluidos entre a busca dos ids e a consulta ficam de fora da pagina
+        List<LancamentoResumoDTO> conteudo = ids.getContent().stream()
+                .map(lancamentos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(conteudo, pageable, ids.getTotalElements() - (ids.getNumberOfElements() - conteudo.size()));
 
-        return repository.findAll(example);
     }
 
     @Override
@@ -117,4 +308,170 @@ public class LancamentoServiceImpl implements LancamentoService {
         atualizar(lancamento);
     }
 
+    @Override
+    @Transactional
+    public int atualizarStatusPorId(Long id, Long idUsuario, Long versao, StatusLancamento status) {
+
+        Specification<Lancamento> doLancamento = doLancamento(id, idUsuario);
+        int atualizados = atualizarStatus(doLancamento.and(LancamentoSpecifications.naVersao(versao)), status);
+
+        conferirVersao(doLancamento, id, versao, atualizados);
+        return atualizados;
+
+    }
+
+    @Override
+    @Transactional
+    public int atualizarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status) {
+
+        if (idUsuario == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        if (ids == null || ids.isEmpty()) {
+            throw new RegraNegocioException("Informe os lançamentos.");
+        }
+
+        if (ids.size() > TAMANHO_MAXIMO_LOTE_STATUS) {
+            throw new RegraNegocioException("Informe no máximo " + TAMANHO_MAXIMO_LOTE_STATUS + " lançamentos.");
+        }
+
+        return atualizarStatus(Specification.where(LancamentoSpecifications.doUsuario(idUsuario))
+                .and(LancamentoSpecifications.dosIds(ids))
+                .and(LancamentoSpecifications.comStatusDiferenteDe(status)), status);
+
+    }
+
+    @Override
+    @Transactional
+    public int atualizarStatus(LancamentoFilter filtro, StatusLancamento status) {
+        return atualizarStatus(criarSpecification(filtro)
+                .and(LancamentoSpecifications.comStatusDiferenteDe(status)), status);
+    }
+
+    //Um unico delete, sem carregar o lancamento; retorna 0 quando o id nao existe
+    @Override
+    @Transactional
+    public int deletarPorId(Long id, Long idUsuario, Long versao) {
+
+        Specification<Lancamento> doLancamento = doLancamento(id, idUsuario);
+        Specification<Lancamento> specification = doLancamento.and(LancamentoSpecifications.naVersao(versao));
+
+        List<SaldoUsuario> totais = totalizarBloqueando(specification);
+        int removidos = repository.deletar(specification);
+        conferir(totais, removidos);
+        conferirVersao(doLancamento, id, versao, removidos);
+
+        porUsuario(totais).forEach((idDoUsuario, doUsuario) -> {
+            saldoUsuarioService.estornar(idDoUsuario, doUsuario);
+            buscaDescricaoService.invalidar(idDoUsuario);
+        });
+        return removidos;
+
+    }
+
+    //Um unico update para todos os lancamentos; os totais do resumo de saldo vem da mesma leitura que trava
+    //os lancamentos do filtro e sao movidos do status antigo para o novo
+    private int atualizarStatus(Specification<Lancamento> specification, StatusLancamento status) {
+
+        if (status == null) {
+            throw new RegraNegocioException("Informe um Status.");
+        }
+
+        List<SaldoUsuario> totais = totalizarBloqueando(specification);
+        int atualizados = repository.atualizarStatus(specification, status);
+        conferir(totais, atualizados);
+
+        porUsuario(totais).forEach((idUsuario, doUsuario) -> saldoUsuarioService.alterarStatus(idUsuario, doUsuario, status));
+        return atualizados;
+
+    }
+
+    //Uma unica leitura antes da escrita: o select ... for update traz as colunas do resumo de cada lancamento do
+    //filtro e os trava, nenhuma outra transacao altera o valor, o status ou remove algum deles ate o update/delete.
+    //A soma por (usuario, ano, mes, tipo, status) e feita aqui; um filtro que alcanca mais de
+    //TAMANHO_MAXIMO_LOTE_STATUS lancamentos e recusado antes de qualquer alteracao
+    private List<SaldoUsuario> totalizarBloqueando(Specification<Lancamento> specification) {
+
+        List<SaldoUsuario> lancamentos = repository.bloquearParaSaldo(specification, TAMANHO_MAXIMO_LOTE_STATUS + 1);
+
+        if (lancamentos.size() > TAMANHO_MAXIMO_LOTE_STATUS) {
+            throw new RegraNegocioException("O filtro alcança mais de " + TAMANHO_MAXIMO_LOTE_STATUS + " lançamentos, restrinja o filtro.");
+        }
+
+        Map<List<Object>, SaldoUsuario> totais = new LinkedHashMap<>();
+        for (SaldoUsuario lancamento : lancamentos) {
+            totais.merge(Arrays.asList(lancamento.getIdUsuario(), lancamento.getAno(), lancamento.getMes(),
+                    lancamento.getTipo(), lancamento.getStatus()), lancamento, (atual, novo) -> {
+                atual.setValor(somar(atual.getValor(), novo.getValor()));
+                atual.setQuantidade(atual.getQuantidade() + novo.getQuantidade());
+                return atual;
+            });
+        }
+
+        return new ArrayList<>(totais.values());
+
+    }
+
+    private static BigDecimal somar(BigDecimal atual, BigDecimal valor) {
+        if (atual == null)
+            return valor;
+        return valor == null ? atual : atual.add(valor);
+    }
+
+    //Um lancamento que passou a atender o filtro depois da trava (inserido ou alterado por outra transacao)
+    //muda a quantidade: tudo e desfeito com um conflito de concorrencia, em vez de corrigir o resumo errado
+    private void conferir(List<SaldoUsuario> totais, int alterados) {
+        long esperados = totais.stream().mapToLong(SaldoUsuario::getQuantidade).sum();
+        if (alterados != esperados) {
+            throw new ConcurrencyFailureException("Os lançamentos foram alterados durante a atualização, tente novamente.");
+        }
+    }
+
+    //O lancamento pelo id, restrito ao usuario quando informado
+    private Specification<Lancamento> doLancamento(Long id, Long idUsuario) {
+        return Specification.where(LancamentoSpecifications.dosIds(Collections.singleton(id)))
+                .and(LancamentoSpecifications.doUsuario(idUsuario));
+    }
+
+    //Nenhuma linha com a versao esperada: distingue o lancamento inexistente (0) do alterado por outra requisicao
+    private void conferirVersao(Specification<Lancamento> doLancamento, Long id, Long versao, int alterados) {
+        if (alterados == 0 && versao != null && repository.count(doLancamento) > 0) {
+            throw new ObjectOptimisticLockingFailureException(Lancamento.class, id);
+        }
+    }
+
+    //Lancamentos sem usuario nao entram no resumo de saldo
+    private Map<Long, List<SaldoUsuario>> porUsuario(List<SaldoUsuario> totais) {
+        return totais.stream()
+                .filter(total -> total.getIdUsuario() != null)
+                .collect(Collectors.groupingBy(SaldoUsuario::getIdUsuario));
+    }
+
+    private void invalidarBuscaDescricao(Lancamento lancamento) {
+        if (lancamento.getUsuario() != null)
+            buscaDescricaoService.invalidar(lancamento.getUsuario().getId());
+    }
+
+    private Lancamento copiarValoresDoSaldo(Lancamento lancamento) {
+        return Lancamento.builder()
+                .usuario(lancamento.getUsuario())
+                .ano(lancamento.getAno())
+                .mes(lancamento.getMes())
+                .tipo(lancamento.getTipo())
+                .status(lancamento.getStatus())
+                .valor(lancamento.getValor())
+                .build();
+    }
+
+    private Specification<Lancamento> criarSpecification(LancamentoFilter filtro) {
+
+        if (filtro.getIdUsuario() == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        return LancamentoSpecifications.doFiltro(filtro);
+
+    }
+
 }
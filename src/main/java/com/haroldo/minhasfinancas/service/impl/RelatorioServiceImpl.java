@@ -0,0 +1,59 @@
+package com.haroldo.minhasfinancas.service.impl;
+
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoSpecifications;
+import com.haroldo.minhasfinancas.roteamento.LeituraDoUsuario;
+import com.haroldo.minhasfinancas.service.RelatorioService;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class RelatorioServiceImpl implements RelatorioService {
+
+    private final LancamentoRepository repository;
+
+    public RelatorioServiceImpl(LancamentoRepository repository) {
+
+        super();
+        this.repository = repository;
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#idUsuario")
+    public List<RelatorioItemDTO> gerarRelatorio(Long idUsuario, Integer anoInicial, Integer mesInicial, Integer anoFinal, Integer mesFinal) {
+
+        if (idUsuario == null) {
+            throw new RegraNegocioException("Informe um Usuário.");
+        }
+
+        validarMes(mesInicial);
+        validarMes(mesFinal);
+
+        if ((anoInicial == null && mesInicial != null) || (anoFinal == null && mesFinal != null)) {
+            throw new RegraNegocioException("Informe o ano junto com o mês do período.");
+        }
+
+        Specification<Lancamento> specification = Specification
+                .where(LancamentoSpecifications.doUsuario(idUsuario))
+                .and(LancamentoSpecifications.aPartirDe(anoInicial, mesInicial))
+                .and(LancamentoSpecifications.ate(anoFinal, mesFinal));
+
+        return repository.totalizarPorMes(specification);
+
+    }
+
+    private void validarMes(Integer mes) {
+        if (mes != null && (mes < 1 || mes > 12)) {
+            throw new RegraNegocioException("Informe um Mês válido.");
+        }
+    }
+
+}
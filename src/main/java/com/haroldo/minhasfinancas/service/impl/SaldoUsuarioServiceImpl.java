@@ -0,0 +1,267 @@
+package com.haroldo.minhasfinancas.service.impl;
+
+import com.haroldo.minhasfinancas.api.dto.DivergenciaSaldoDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.config.CacheConfig;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.VersaoUsuarioRepository;
+import com.haroldo.minhasfinancas.roteamento.EscritaDoUsuario;
+import com.haroldo.minhasfinancas.roteamento.LeituraDoUsuario;
+import com.haroldo.minhasfinancas.service.SaldoUsuarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+    public static final int TAMANHO_BLOCO_RECONCILIACAO = 500;
+
+    private final SaldoUsuarioRepository repository;
+    private final LancamentoRepository lancamentoRepository;
+    private final VersaoUsuarioRepository versaoUsuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+                                   VersaoUsuarioRepository versaoUsuarioRepository,
+                                   PlatformTransactionManager transactionManager) {
+
+        super();
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.versaoUsuarioRepository = versaoUsuarioRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+    }
+
+    //Toda alteracao no resumo remove o saldo do usuario do cache, o proxy do cache aplica a remocao apos o commit
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#lancamento.usuario.id", condition = "#lancamento.usuario != null")
+    @EscritaDoUsuario("#lancamento.usuario?.id")
+    public void registrar(Lancamento lancamento) {
+        aplicar(lancamento, lancamento.getValor(), 1L);
+        incrementarVersao(lancamento);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @EscritaDoUsuario("#lancamentos.![usuario?.id]")
+    public void registrar(Collection<Lancamento> lancamentos) {
+
+        //Agrupa os lancamentos pela chave do resumo: um update por (usuario, ano, mes, tipo, status)
+        Map<List<Object>, SaldoUsuario> deltas = new LinkedHashMap<>();
+
+        for (Lancamento lancamento : lancamentos) {
+
+            if (lancamento.getUsuario() == null || lancamento.getTipo() == null || lancamento.getStatus() == null)
+                continue;
+
+            SaldoUsuario delta = new SaldoUsuario(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+                    lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor(), 1L);
+
+            deltas.merge(chave(delta), delta, (atual, novo) -> {
+                atual.setValor(atual.getValor().add(novo.getValor()));
+                atual.setQuantidade(atual.getQuantidade() + novo.getQuantidade());
+                return atual;
+            });
+
+        }
+
+        deltas.values().forEach(this::aplicar);
+        deltas.values().stream().map(SaldoUsuario::getIdUsuario).distinct().forEach(this::incrementarVersao);
+
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#lancamento.usuario.id", condition = "#lancamento.usuario != null")
+    @EscritaDoUsuario("#lancamento.usuario?.id")
+    public void estornar(Lancamento lancamento) {
+        aplicar(lancamento, lancamento.getValor().negate(), -1L);
+        incrementarVersao(lancamento);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#idUsuario")
+    @EscritaDoUsuario("#idUsuario")
+    public void alterarStatus(Long idUsuario, Collection<SaldoUsuario> totais, StatusLancamento status) {
+
+        for (SaldoUsuario total : totais) {
+
+            if (status.equals(total.getStatus()))
+                continue;
+
+            aplicar(new SaldoUsuario(idUsuario, total.getAno(), total.getMes(), total.getTipo(),
+                    total.getStatus(), total.getValor().negate(), -total.getQuantidade()));
+            aplicar(new SaldoUsuario(idUsuario, total.getAno(), total.getMes(), total.getTipo(),
+                    status, total.getValor(), total.getQuantidade()));
+
+        }
+
+        incrementarVersao(idUsuario);
+
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @CacheEvict(cacheNames = CacheConfig.SALDOS, key = "#idUsuario")
+    @EscritaDoUsuario("#idUsuario")
+    public void estornar(Long idUsuario, Collection<SaldoUsuario> totais) {
+        for (SaldoUsuario total : totais) {
+            aplicar(new SaldoUsuario(idUsuario, total.getAno(), total.getMes(), total.getTipo(),
+                    total.getStatus(), total.getValor().negate(), -total.getQuantidade()));
+        }
+        incrementarVersao(idUsuario);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.SALDOS, key = "#idUsuario", unless = "#result == null")
+    @LeituraDoUsuario("#idUsuario")
+    public Optional<SaldoDTO> obterSaldoPorUsuario(Long idUsuario) {
+        return repository.obterSaldoUsuario(idUsuario);
+    }
+
+    //Lida a cada requisicao condicional, sem cache: e uma busca pela chave primaria
+    @Override
+    @Transactional(readOnly = true)
+    @LeituraDoUsuario("#idUsuario")
+    public long obterVersaoLancamentos(Long idUsuario) {
+        return versaoUsuarioRepository.obterVersao(idUsuario).orElse(0L);
+    }
+
+    //Um bloco de usuarios por transacao, com as escritas em lancamentos bloqueadas apenas durante o bloco: os
+    //totais calculados e o resumo sao lidos sem deltas concorrentes e as correcoes sao aplicadas como deltas
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.SALDOS, allEntries = true)
+    public List<DivergenciaSaldoDTO> reconciliar() {
+
+        List<DivergenciaSaldoDTO> divergencias = new ArrayList<>();
+
+        Long aposId = 0L;
+        while (aposId != null) {
+            Long ultimoId = aposId;
+            aposId = transactionTemplate.execute(status -> reconciliarBloco(ultimoId, divergencias));
+        }
+
+        divergencias.forEach(d -> log.warn("Divergencia no saldo corrigida: {}", d));
+
+        return divergencias;
+
+    }
+
+    //Retorna o ultimo usuario do bloco, nulo quando nao ha mais usuarios
+    private Long reconciliarBloco(Long aposId, List<DivergenciaSaldoDTO> divergencias) {
+
+        List<Long> usuarios = repository.buscarIdsUsuarios(aposId, PageRequest.of(0, TAMANHO_BLOCO_RECONCILIACAO));
+        if (usuarios.isEmpty())
+            return null;
+
+        repository.bloquearLancamentos();
+
+        Map<List<Object>, SaldoUsuario> registrados = new HashMap<>();
+        for (SaldoUsuario saldo : repository.buscarPorUsuarios(usuarios)) {
+            registrados.put(chave(saldo), saldo);
+        }
+
+        List<DivergenciaSaldoDTO> doBloco = new ArrayList<>();
+
+        for (SaldoUsuario calculado : lancamentoRepository.calcularSaldosDosUsuarios(usuarios)) {
+
+            SaldoUsuario registrado = registrados.remove(chave(calculado));
+            BigDecimal valorRegistrado = registrado == null ? BigDecimal.ZERO : registrado.getValor();
+            long quantidadeRegistrada = registrado == null ? 0L : registrado.getQuantidade();
+
+            if (registrado == null || valorRegistrado.compareTo(calculado.getValor()) != 0
+                    || quantidadeRegistrada != calculado.getQuantidade()) {
+                doBloco.add(divergencia(calculado, valorRegistrado, calculado.getValor()));
+                aplicar(new SaldoUsuario(calculado.getIdUsuario(), calculado.getAno(), calculado.getMes(), calculado.getTipo(),
+                        calculado.getStatus(), calculado.getValor().subtract(valorRegistrado),
+                        calculado.getQuantidade() - quantidadeRegistrada));
+            }
+
+        }
+
+        //Linhas de resumo que nao correspondem a nenhum lancamento
+        for (SaldoUsuario sobra : registrados.values()) {
+            if (sobra.getQuantidade() != 0 || sobra.getValor().signum() != 0) {
+                doBloco.add(divergencia(sobra, sobra.getValor(), BigDecimal.ZERO));
+            }
+        }
+
+        if (!registrados.isEmpty())
+            repository.deleteAllByIdInBatch(registrados.values().stream().map(SaldoUsuario::getId).collect(Collectors.toList()));
+
+        doBloco.stream().map(DivergenciaSaldoDTO::getIdUsuario).distinct().forEach(this::incrementarVersao);
+        divergencias.addAll(doBloco);
+
+        return usuarios.get(usuarios.size() - 1);
+
+    }
+
+    private void aplicar(Lancamento lancamento, BigDecimal valor, Long quantidade) {
+
+        if (lancamento.getUsuario() == null || lancamento.getTipo() == null || lancamento.getStatus() == null)
+            return;
+
+        aplicar(new SaldoUsuario(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+                lancamento.getTipo(), lancamento.getStatus(), valor, quantidade));
+
+    }
+
+    //A versao muda a cada escrita no resumo, mesmo quando so a descricao do lancamento mudou
+    private void incrementarVersao(Lancamento lancamento) {
+        if (lancamento.getUsuario() != null)
+            incrementarVersao(lancamento.getUsuario().getId());
+    }
+
+    private void incrementarVersao(Long idUsuario) {
+        versaoUsuarioRepository.incrementar(idUsuario);
+    }
+
+    private void aplicar(SaldoUsuario delta) {
+        repository.aplicarDelta(delta.getIdUsuario(), delta.getAno(), delta.getMes(),
+                delta.getTipo(), delta.getStatus(), delta.getValor(), delta.getQuantidade());
+    }
+
+    private List<Object> chave(SaldoUsuario saldo) {
+        return Arrays.asList(saldo.getIdUsuario(), saldo.getAno(), saldo.getMes(), saldo.getTipo(), saldo.getStatus());
+    }
+
+    private DivergenciaSaldoDTO divergencia(SaldoUsuario saldo, BigDecimal registrado, BigDecimal calculado) {
+        return DivergenciaSaldoDTO.builder()
+                .idUsuario(saldo.getIdUsuario())
+                .ano(saldo.getAno())
+                .mes(saldo.getMes())
+                .tipo(saldo.getTipo())
+                .status(saldo.getStatus())
+                .valorRegistrado(registrado)
+                .valorCalculado(calculado)
+                .build();
+    }
+
+}
@@ -1,8 +1,13 @@
 package com.haroldo.minhasfinancas.service.impl;
 
+import com.haroldo.minhasfinancas.autenticacao.VerificacaoSenha;
+import com.haroldo.minhasfinancas.config.CacheConfig;
 import com.haroldo.minhasfinancas.exception.ErroAutenticacaoException;
+import com.haroldo.minhasfinancas.roteamento.EscritaDoUsuario;
+import com.haroldo.minhasfinancas.roteamento.LeituraDoPrimario;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
@@ -15,15 +20,21 @@ import java.util.Optional;
 public class UsuarioServiceImpl implements UsuarioService {
 	
 	private final UsuarioRepository repository;
+	private final VerificacaoSenha verificacaoSenha;
+	private final CacheManager cacheManager;
 	
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	public UsuarioServiceImpl(UsuarioRepository repository, VerificacaoSenha verificacaoSenha, CacheManager cacheManager) {
 
 		super();
 		this.repository = repository;
+		this.verificacaoSenha = verificacaoSenha;
+		this.cacheManager = cacheManager;
 
 	}
 
+	//Pelo email nao ha usuario para a janela de consistencia: o login logo apos o cadastro le do primario
 	@Override
+	@LeituraDoPrimario
 	public Usuario autenticar(String email, String senha) {
 
 		Optional<Usuario> usuario = repository.findByEmail(email);
@@ -32,19 +43,34 @@ public class UsuarioServiceImpl implements UsuarioService {
 			throw new ErroAutenticacaoException("Usuário não encontrado para o email informado.");
 
 
-		if (!usuario.get().getSenha().equals(senha)) {
+		if (!verificacaoSenha.confere(senha, usuario.get().getSenha())) {
 			throw new ErroAutenticacaoException("Senha inválida.");
 		}
 
+		//Senha ainda em texto ou com custo diferente do configurado: a senha informada e recodificada agora,
+		//unico momento em que ela e conhecida
+		if (verificacaoSenha.precisaRecodificar(usuario.get().getSenha())) {
+			usuario.get().setSenha(verificacaoSenha.codificar(senha));
+			repository.save(usuario.get());
+			cacheManager.getCache(CacheConfig.USUARIOS).evict(usuario.get().getId());
+		}
+
 		return usuario.get();
 
 	}
 
+	//Sem transacao propria: o hash, que pode aguardar a fila do executor, nao segura uma conexao.
+	//A consulta do email vai para o primario e o save abre a sua transacao
 	@Override
-	@Transactional
+	@LeituraDoPrimario
+	@EscritaDoUsuario("#result.id")
 	public Usuario salvarUsuario(Usuario usuario) {
 
 		validarEmail(usuario.getEmail());
+
+		if (usuario.getSenha() != null)
+			usuario.setSenha(verificacaoSenha.codificar(usuario.getSenha()));
+
 		return repository.save(usuario);
 
 	}
@@ -61,7 +87,12 @@ public class UsuarioServiceImpl implements UsuarioService {
 
 	}
 
+	//Usuario inexistente nao e guardado, o Optional vazio sempre consulta o banco. A consulta vai para o primario:
+	//o usuario recem-cadastrado pode ser usado em outra instancia, fora da janela de consistencia desta, e o cache
+	//de usuarios ja absorve a maior parte das leituras
 	@Override
+	@LeituraDoPrimario
+	@Cacheable(cacheNames = CacheConfig.USUARIOS, key = "#id", unless = "#result == null")
 	public Optional<Usuario> obterPorId(Long id) {
 		return repository.findById(id);
 	}
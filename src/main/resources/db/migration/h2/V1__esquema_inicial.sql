@@ -0,0 +1,38 @@
+-- Mesmo esquema de db/migration/postgresql, na sintaxe do H2 usado nos testes.
+-- As chaves estrangeiras ficam em V2, depois dos indices
+create table financas.usuario
+(
+	id bigint auto_increment not null primary key,
+	nome varchar(150),
+	email varchar(100),
+	senha varchar(20),
+	data_cadastro date default current_date
+);
+
+create table financas.lancamento
+(
+	id bigint not null primary key,
+	descricao varchar(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo varchar(20) not null check(tipo in ('RECEITA', 'DESPESA')),
+	status varchar(20) not null check(status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')),
+	id_usuario bigint,
+	data_cadastro date default current_date
+);
+
+create sequence financas.lancamento_id_seq start with 1 increment by 50;
+
+create table financas.saldo_usuario
+(
+	id bigint auto_increment not null primary key,
+	id_usuario bigint not null,
+	ano integer not null,
+	mes integer not null,
+	tipo varchar(20) not null check(tipo in ('RECEITA', 'DESPESA')),
+	status varchar(20) not null check(status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')),
+	valor numeric(16,2) not null,
+	quantidade bigint not null,
+	constraint uk_saldo_usuario_chave unique (id_usuario, ano, mes, tipo, status)
+);
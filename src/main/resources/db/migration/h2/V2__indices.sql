@@ -0,0 +1,10 @@
+-- O H2 nao indexa expressoes: o indice unico fica na coluna, sem lower(email)
+create unique index ux_usuario_email on financas.usuario (email);
+
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes, id);
+create index idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status);
+
+-- Criadas depois dos indices: o H2 reaproveita um indice que comece por id_usuario em vez de
+-- criar um indice proprio para a chave, como o Postgres, que nao indexa chaves estrangeiras
+alter table financas.lancamento add constraint fk_lancamento_usuario foreign key (id_usuario) references financas.usuario(id);
+alter table financas.saldo_usuario add constraint fk_saldo_usuario_usuario foreign key (id_usuario) references financas.usuario(id);
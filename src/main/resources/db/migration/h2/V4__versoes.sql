@@ -0,0 +1,13 @@
+-- Mesmo esquema de db/migration/postgresql/V4__versoes.sql, na sintaxe do H2
+alter table financas.lancamento add column versao bigint default 0 not null;
+
+create table financas.versao_usuario
+(
+	id_usuario bigint not null primary key,
+	versao bigint not null
+);
+
+alter table financas.versao_usuario add constraint fk_versao_usuario_usuario foreign key (id_usuario) references financas.usuario(id) on delete cascade;
+
+insert into financas.versao_usuario (id_usuario, versao)
+select id, 0 from financas.usuario;
@@ -0,0 +1,2 @@
+-- Mesmo esquema de db/migration/postgresql/V5__senha_hash.sql, na sintaxe do H2
+alter table financas.usuario alter column senha set data type varchar(100);
@@ -0,0 +1,48 @@
+-- Esquema que antes era criado manualmente por database/scripts-iniciais.sql.
+-- Bancos ja existentes sao marcados na versao 0 (spring.flyway.baseline-on-migrate) e tambem recebem este
+-- script: por isso os "if not exists", ja que o script antigo nao tinha o resumo de saldo nem os blocos de 50
+create table if not exists financas.usuario
+(
+	id bigserial not null primary key,
+	nome character varying(150),
+	email character varying(100),
+	senha character varying(20),
+	data_cadastro date default now()
+);
+
+create table if not exists financas.lancamento
+(
+	id bigserial not null primary key,
+	descricao character varying(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo character varying(20) check(tipo in ('RECEITA', 'DESPESA')) not null,
+	status character varying(20) check(status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')) not null,
+	id_usuario bigint references financas.usuario(id),
+	data_cadastro date default now()
+);
+
+-- O Lancamento aloca ids em blocos de 50 (allocationSize do @SequenceGenerator)
+alter sequence financas.lancamento_id_seq increment by 50;
+
+create table if not exists financas.saldo_usuario
+(
+	id bigserial not null primary key,
+	id_usuario bigint references financas.usuario(id) not null,
+	ano integer not null,
+	mes integer not null,
+	tipo character varying(20) check(tipo in ('RECEITA', 'DESPESA')) not null,
+	status character varying(20) check(status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')) not null,
+	valor numeric(16,2) not null,
+	quantidade bigint not null,
+	constraint uk_saldo_usuario_chave unique (id_usuario, ano, mes, tipo, status)
+);
+
+-- Resumo de saldo dos lancamentos ja existentes (vazio num banco novo)
+insert into financas.saldo_usuario (id_usuario, ano, mes, tipo, status, valor, quantidade)
+select id_usuario, ano, mes, tipo, status, sum(valor), count(*)
+from financas.lancamento
+where id_usuario is not null
+group by id_usuario, ano, mes, tipo, status
+on conflict (id_usuario, ano, mes, tipo, status) do nothing;
@@ -0,0 +1,13 @@
+-- "if not exists": bancos criados pelo script antigo ja podem ter parte destes indices
+
+-- Login e cadastro (findByEmail / existsByEmail comparam lower(email))
+create unique index if not exists ux_usuario_email on financas.usuario (lower(email));
+
+-- Busca de lancamentos e paginacao por cursor, sempre iniciando pelo usuario
+create index if not exists idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes, id);
+create index if not exists idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status);
+
+-- Busca textual na descricao (minhasfinancas.busca-descricao.modo=trigram)
+create extension if not exists pg_trgm;
+create extension if not exists btree_gin;
+create index if not exists idx_lancamento_usuario_descricao_trgm on financas.lancamento using gin (id_usuario, descricao gin_trgm_ops);
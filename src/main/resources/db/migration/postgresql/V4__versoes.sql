@@ -0,0 +1,13 @@
+-- Versao de cada lancamento (@Version), devolvida como ETag e conferida no If-Match.
+alter table financas.lancamento add column versao bigint not null default 0;
+
+-- Versao do conjunto de lancamentos de cada usuario, incrementada a cada escrita no resumo de saldo.
+-- E o ETag das listagens e do saldo, que respondem 304 sem executar a consulta
+create table financas.versao_usuario
+(
+	id_usuario bigint not null primary key references financas.usuario(id) on delete cascade,
+	versao bigint not null
+);
+
+insert into financas.versao_usuario (id_usuario, versao)
+select id, 0 from financas.usuario;
@@ -0,0 +1,3 @@
+-- As senhas passam a ser gravadas com hash (60 caracteres no BCrypt). As gravadas em texto continuam
+-- valendo e sao recodificadas no proximo login
+alter table financas.usuario alter column senha type varchar(100);
@@ -0,0 +1,83 @@
+-- Particiona financas.lancamento por ano (perfil "particionado", Postgres 11 ou superior).
+-- As buscas filtram por ano/mes e o planner le apenas as particoes do intervalo pedido.
+-- Numerada depois da ultima migration de db/migration, com o esquema completo da tabela ate ela (inclusive a
+-- versao do V4): a versao 6 fica reservada e as proximas migrations principais continuam a partir da 7
+
+-- Novas particoes sao criadas pelo ParticoesLancamentoJob antes do ano comecar.
+-- Anos sem particao ficam em lancamento_padrao. Ao criar a particao de um ano que ja tem linhas na
+-- padrao, ela e desanexada, as linhas do ano vao para a nova particao e ela volta a ser a padrao
+create or replace function financas.criar_particoes_lancamento(ano_inicial integer, ano_final integer)
+returns integer
+language plpgsql
+as $$
+declare
+    ano_particao integer;
+    criadas integer := 0;
+begin
+    for ano_particao in ano_inicial..ano_final loop
+        if to_regclass(format('financas.lancamento_%s', ano_particao)) is null then
+            if to_regclass('financas.lancamento_padrao') is not null
+                    and exists (select 1 from financas.lancamento_padrao where ano = ano_particao) then
+                alter table financas.lancamento detach partition financas.lancamento_padrao;
+                execute format('create table financas.lancamento_%s partition of financas.lancamento for values from (%s) to (%s)',
+                               ano_particao, ano_particao, ano_particao + 1);
+                execute format('insert into financas.lancamento_%s select * from financas.lancamento_padrao where ano = %s',
+                               ano_particao, ano_particao);
+                delete from financas.lancamento_padrao where ano = ano_particao;
+                alter table financas.lancamento attach partition financas.lancamento_padrao default;
+            else
+                execute format('create table financas.lancamento_%s partition of financas.lancamento for values from (%s) to (%s)',
+                               ano_particao, ano_particao, ano_particao + 1);
+            end if;
+            criadas := criadas + 1;
+        end if;
+    end loop;
+    return criadas;
+end;
+$$;
+
+-- A sequencia continua sendo usada pela nova tabela, entao deixa de pertencer a antiga
+alter sequence financas.lancamento_id_seq owned by none;
+
+drop index if exists financas.idx_lancamento_usuario_ano_mes;
+drop index if exists financas.idx_lancamento_usuario_tipo_status;
+drop index if exists financas.idx_lancamento_usuario_descricao_trgm;
+alter table financas.lancamento rename to lancamento_legado;
+alter table financas.lancamento_legado rename constraint lancamento_pkey to lancamento_legado_pkey;
+
+-- A chave de particionamento precisa fazer parte da chave primaria
+create table financas.lancamento
+(
+	id bigint not null default nextval('financas.lancamento_id_seq'),
+	descricao character varying(100) not null,
+	mes integer not null,
+	ano integer not null,
+	valor numeric(16,2) not null,
+	tipo character varying(20) check(tipo in ('RECEITA', 'DESPESA')) not null,
+	status character varying(20) check(status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')) not null,
+	id_usuario bigint references financas.usuario(id),
+	data_cadastro date default now(),
+	versao bigint not null default 0,
+	primary key (id, ano)
+) partition by range (ano);
+
+alter sequence financas.lancamento_id_seq owned by financas.lancamento.id;
+
+create table financas.lancamento_padrao partition of financas.lancamento default;
+
+-- Uma particao por ano dos ultimos dez anos ate o proximo; anos mais antigos ficam na padrao
+select financas.criar_particoes_lancamento(
+    greatest(coalesce(min(ano), extract(year from current_date)::integer), extract(year from current_date)::integer - 10),
+    extract(year from current_date)::integer + 1)
+from financas.lancamento_legado;
+
+insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao)
+select id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao
+from financas.lancamento_legado;
+
+drop table financas.lancamento_legado;
+
+-- Criados na tabela particionada, replicados pelo Postgres em cada particao
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes, id);
+create index idx_lancamento_usuario_tipo_status on financas.lancamento (id_usuario, tipo, status);
+create index idx_lancamento_usuario_descricao_trgm on financas.lancamento using gin (id_usuario, descricao gin_trgm_ops);
@@ -0,0 +1,578 @@
+package com.haroldo.minhasfinancas.api.resource;
+
+import com.haroldo.minhasfinancas.api.arquivo.LinhaImportacao;
+import com.haroldo.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.PaginaCursorDTO;
+import com.haroldo.minhasfinancas.autenticacao.AutenticacaoFilter;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.service.ImportacaoLancamentoService;
+import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoResource.class)
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+    static final String API = "/api/lancamentos";
+    static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @MockBean
+    ImportacaoLancamentoService importacaoService;
+
+    private LancamentoResumoDTO criarLancamento(Long id) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(id);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        lancamento.setVersao(0L);
+        return LancamentoResumoDTO.de(lancamento);
+    }
+
+    private LancamentoResumoDTO criarLancamento(Long id, String descricao) {
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(id);
+        lancamento.setDescricao(descricao);
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+        lancamento.setVersao(0L);
+        return LancamentoResumoDTO.de(lancamento);
+    }
+
+    @Test
+    public void deveBuscarLancamentosPaginados() throws Exception {
+
+        //Cenario
+        Usuario usuario = Usuario.builder().id(1L).nome("Fulano 1").build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        Mockito.when(service.buscar(Mockito.any(LancamentoFilter.class), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(criarLancamento(1L)), PageRequest.of(0, 1), 3));
+
+        //Execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(API)
+                .param("usuario", "1")
+                .param("page", "0")
+                .param("size", "1")
+                .accept(JSON);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].usuarioId").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("content[0].usuario").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("totalElements").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("totalPages").value(3));
+
+    }
+
+    @Test
+    public void deveRetornarBadRequestAoOrdenarPorUmCampoNaoPermitido() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(service.buscar(Mockito.any(LancamentoFilter.class), Mockito.any(Pageable.class)))
+                .thenThrow(new RegraNegocioException("Não é possível ordenar por usuario.senha."));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", "1").param("page", "0").param("sort", "usuario.senha").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(Matchers.containsString("usuario.senha")));
+
+    }
+
+    @Test
+    public void deveBuscarLancamentosPorCursor() throws Exception {
+
+        //Cenario
+        Usuario usuario = Usuario.builder().id(1L).nome("Fulano 1").build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+
+        CursorLancamento cursor = new CursorLancamento(2022, 1, 5L);
+        PaginaCursorDTO<LancamentoResumoDTO> pagina = PaginaCursorDTO.<LancamentoResumoDTO>builder()
+                .conteudo(Arrays.asList(criarLancamento(6L)))
+                .tamanho(1)
+                .possuiProximo(true)
+                .proximoCursor(new CursorLancamento(2022, 1, 6L).codificar())
+                .build();
+
+        Mockito.when(service.buscar(Mockito.any(LancamentoFilter.class),
+                Mockito.argThat(c -> c != null && c.getId().equals(5L)), Mockito.eq(1))).thenReturn(pagina);
+
+        //Execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(API.concat("/cursor"))
+                .param("usuario", "1")
+                .param("cursor", cursor.codificar())
+                .param("size", "1")
+                .accept(JSON);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("conteudo[0].id").value(6))
+                .andExpect(MockMvcResultMatchers.jsonPath("possuiProximo").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("proximoCursor").value(pagina.getProximoCursor()));
+
+    }
+
+    @Test
+    public void deveRetornarBadRequestParaCursorInvalido() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/cursor"))
+                        .param("usuario", "1")
+                        .param("cursor", "invalido")
+                        .accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    }
+
+    @Test
+    public void deveRepassarOsFiltrosDaBusca() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+
+        //Execucao
+        mvc.perform(MockMvcRequestBuilders.get(API)
+                        .param("usuario", "1")
+                        .param("tipo", "DESPESA")
+                        .param("anoInicial", "2021")
+                        .param("mesInicial", "6")
+                        .param("valorMaximo", "100.50")
+                        .accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        //Verificacao
+        Mockito.verify(service).buscar(Mockito.argThat((LancamentoFilter f) -> f.getIdUsuario().equals(1L)
+                && f.getTipo() == TipoLancamento.DESPESA
+                && f.getAnoInicial().equals(2021) && f.getMesInicial().equals(6)
+                && f.getValorMaximo().compareTo(new BigDecimal("100.50")) == 0
+                && f.getDescricao() == null));
+
+    }
+
+    @Test
+    public void deveObterOResumoDeUmLancamentoPorId() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterResumoPorId(1L)).thenReturn(Optional.of(criarLancamento(1L)));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("usuarioId").value(1));
+
+    }
+
+    @Test
+    public void deveRetornarNotFoundParaLancamentoInexistente() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterResumoPorId(1L)).thenReturn(Optional.empty());
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+    }
+
+    @Test
+    public void deveImportarLancamentosDeUmCsv() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(importacaoService.importar(Mockito.any(Usuario.class), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    Iterator<LinhaImportacao> linhas = invocacao.getArgument(1);
+                    int lidas = 0;
+                    while (linhas.hasNext()) {
+                        linhas.next();
+                        lidas++;
+                    }
+                    return ImportacaoResultadoDTO.builder().linhasLidas(lidas).linhasImportadas(lidas).erros(Collections.emptyList()).build();
+                });
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.post(API.concat("/importacao"))
+                        .param("usuario", "1")
+                        .contentType("text/csv")
+                        .content("descricao,mes,ano,valor,tipo\nSalario,1,2020,100,RECEITA\nAluguel,1,2020,50,DESPESA\n")
+                        .accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("linhasLidas").value(2));
+
+    }
+
+    @Test
+    public void deveExportarLancamentosEmCsv() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.doAnswer(invocacao -> {
+            Consumer<LancamentoResumoDTO> destino = invocacao.getArgument(1);
+            destino.accept(criarLancamento(1L));
+            destino.accept(criarLancamento(2L));
+            return null;
+        }).when(service).exportar(Mockito.any(LancamentoFilter.class), Mockito.any());
+
+        //Execucao
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/exportacao"))
+                        .param("usuario", "1")
+                        .param("formato", "csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Verificacao
+        String csv = mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertThat(csv.split("\n")).hasSize(3);
+        Assertions.assertThat(csv).startsWith("id,descricao,mes,ano,valor,tipo,status,dataCadastro\n1,Lancamento qualquer,1,2019,10,RECEITA,");
+
+    }
+
+    @Test
+    public void deveExportarDescricoesComQuebraDeLinhaEFormulaSemQuebrarOCsv() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.doAnswer(invocacao -> {
+            Consumer<LancamentoResumoDTO> destino = invocacao.getArgument(1);
+            destino.accept(criarLancamento(1L, "Mercado\r\ndo mes"));
+            destino.accept(criarLancamento(2L, "=HYPERLINK(\"http://exemplo\")"));
+            destino.accept(criarLancamento(3L, "@SOMA\r1"));
+            return null;
+        }).when(service).exportar(Mockito.any(LancamentoFilter.class), Mockito.any());
+
+        //Execucao
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/exportacao"))
+                        .param("usuario", "1")
+                        .param("formato", "csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Verificacao
+        String csv = mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] linhas = csv.split("\n");
+        Assertions.assertThat(linhas).hasSize(4);
+        Assertions.assertThat(csv).doesNotContain("\r");
+        Assertions.assertThat(linhas[1]).startsWith("1,Mercado do mes,");
+        Assertions.assertThat(linhas[2]).startsWith("2,\"'=HYPERLINK(\"\"http://exemplo\"\")\",");
+        Assertions.assertThat(linhas[3]).startsWith("3,'@SOMA 1,");
+
+    }
+
+    @Test
+    public void deveRecusarFormatoDeExportacaoInvalido() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/exportacao"))
+                        .param("usuario", "1")
+                        .param("formato", "xml"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service, Mockito.never()).exportar(Mockito.any(), Mockito.any());
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusEmLotePelosIds() throws Exception {
+
+        //Cenario
+        Mockito.when(service.atualizarStatus(1L, Arrays.asList(10L, 11L), StatusLancamento.EFETIVADO)).thenReturn(2);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"usuario\":1,\"ids\":[10,11],\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("2"));
+
+        Mockito.verify(service, Mockito.never()).atualizar(Mockito.any());
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusEmLotePeloFiltro() throws Exception {
+
+        //Execucao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"usuario\":1,\"ano\":2021,\"mes\":6,\"tipo\":\"DESPESA\",\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        //Verificacao
+        Mockito.verify(service).atualizarStatus(Mockito.argThat((LancamentoFilter f) -> f.getIdUsuario().equals(1L)
+                && f.getAno().equals(2021) && f.getMes().equals(6)
+                && f.getTipo() == TipoLancamento.DESPESA), Mockito.eq(StatusLancamento.EFETIVADO));
+
+    }
+
+    @Test
+    public void deveRecusarAtualizacaoDeStatusEmLoteInvalida() throws Exception {
+
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"usuario\":1,\"ids\":[10],\"status\":\"QUALQUER\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"usuario\":1,\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(service);
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusPeloIdSemConsultarOLancamento() throws Exception {
+
+        //Cenario
+        Mockito.when(service.atualizarStatusPorId(1L, null, null, StatusLancamento.EFETIVADO)).thenReturn(1);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+
+        Mockito.verify(service, Mockito.never()).opterPorId(Mockito.any());
+
+    }
+
+    @Test
+    public void deveRetornarNotFoundAoAtualizarOStatusDeLancamentoInexistente() throws Exception {
+
+        //Cenario
+        Mockito.when(service.atualizarStatusPorId(1L, null, null, StatusLancamento.EFETIVADO)).thenReturn(0);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"status\":\"QUALQUER\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    }
+
+    @Test
+    public void deveAtualizarSemConsultarOLancamentoNoResource() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).nome("Fulano 1").build()));
+        Lancamento salvo = LancamentoRepositoryTest.criarLancamento();
+        salvo.setId(1L);
+        salvo.setVersao(4L);
+        Mockito.when(service.atualizar(Mockito.any(Lancamento.class), Mockito.eq(1L))).thenReturn(Optional.of(salvo));
+        Mockito.when(service.atualizar(Mockito.argThat(l -> l != null && l.getId() == 2L), Mockito.eq(1L))).thenReturn(Optional.empty());
+
+        String json = "{\"descricao\":\"Mercado\",\"mes\":1,\"ano\":2020,\"valor\":10,\"tipo\":\"DESPESA\"}";
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/1")).requestAttr(AutenticacaoFilter.USUARIO, 1L)
+                        .header("If-Match", "\"3\"").contentType(JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""));
+
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/2")).requestAttr(AutenticacaoFilter.USUARIO, 1L)
+                        .contentType(JSON).content(json))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(service).atualizar(Mockito.argThat(l -> l != null && l.getId() == 1L), Mockito.eq(1L));
+        Mockito.verify(service, Mockito.never()).opterPorId(Mockito.any());
+
+    }
+
+    @Test
+    public void deveDeletarPeloIdERetornarNotFoundQuandoNaoExiste() throws Exception {
+
+        //Cenario
+        Mockito.when(service.deletarPorId(1L, null, null)).thenReturn(1);
+        Mockito.when(service.deletarPorId(2L, null, null)).thenReturn(0);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.delete(API.concat("/1")))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        mvc.perform(MockMvcRequestBuilders.delete(API.concat("/2")))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verify(service, Mockito.never()).opterPorId(Mockito.any());
+
+    }
+
+    @Test
+    public void deveResponderNotModifiedQuandoOLancamentoNaoMudou() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterResumoPorId(1L)).thenReturn(Optional.of(criarLancamento(1L)));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0\""));
+
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1")).header("If-None-Match", "\"0\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+    }
+
+    @Test
+    public void deveResponderNotModifiedSemConsultarAListagemQuandoAVersaoDoUsuarioNaoMudou() throws Exception {
+
+        //Cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(new Usuario()));
+        Mockito.when(service.obterVersaoLancamentos(1L)).thenReturn(7L);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", "1").header("If-None-Match", "\"7\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        Mockito.verify(service, Mockito.never()).buscar(Mockito.any(LancamentoFilter.class));
+
+        mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", "1").header("If-None-Match", "\"6\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"7\""));
+        Mockito.verify(service).buscar(Mockito.any(LancamentoFilter.class));
+
+    }
+
+    @Test
+    public void deveRetornarPreconditionFailedQuandoOIfMatchNaoCorrespondeAVersao() throws Exception {
+
+        //Cenario
+        Mockito.when(service.atualizarStatusPorId(1L, null, 3L, StatusLancamento.EFETIVADO))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Lancamento.class, 1L));
+        Mockito.when(service.deletarPorId(1L, null, 3L)).thenThrow(new ObjectOptimisticLockingFailureException(Lancamento.class, 1L));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status"))
+                        .header("If-Match", "\"3\"")
+                        .contentType(JSON)
+                        .content("{\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        mvc.perform(MockMvcRequestBuilders.delete(API.concat("/1")).header("If-Match", "\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+    }
+
+    @Test
+    public void deveRetornarConflitoQuandoOsLancamentosMudamDuranteAAtualizacaoEmLote() throws Exception {
+
+        //Cenario
+        Mockito.when(service.atualizarStatus(Mockito.eq(1L), Mockito.anyCollection(), Mockito.eq(StatusLancamento.EFETIVADO)))
+                .thenThrow(new ConcurrencyFailureException("Os lançamentos foram alterados durante a atualização, tente novamente."));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status"))
+                        .contentType(JSON)
+                        .content("{\"usuario\":1,\"ids\":[1,2],\"status\":\"EFETIVADO\"}"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+
+    }
+
+    @Test
+    public void deveUsarOUsuarioDoTokenSemConsultarOUsuario() throws Exception {
+
+        //Cenario
+        Mockito.when(service.buscar(Mockito.any(LancamentoFilter.class))).thenReturn(Arrays.asList(criarLancamento(1L)));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API).requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].id").value(1));
+
+        Mockito.verify(service).buscar(Mockito.argThat((LancamentoFilter filtro) -> filtro.getIdUsuario().equals(1L)));
+        Mockito.verifyNoInteractions(usuarioService);
+
+    }
+
+    @Test
+    public void deveRecusarUsuarioDiferenteDoToken() throws Exception {
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", "2").requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+        Mockito.verifyNoInteractions(service, usuarioService);
+
+    }
+
+    @Test
+    public void deveTratarComoInexistenteOLancamentoDeOutroUsuarioDoToken() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterResumoPorId(1L)).thenReturn(Optional.of(criarLancamento(1L)));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1")).requestAttr(AutenticacaoFilter.USUARIO, 2L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        mvc.perform(MockMvcRequestBuilders.delete(API.concat("/1")).requestAttr(AutenticacaoFilter.USUARIO, 2L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        Mockito.verify(service).deletarPorId(1L, 2L, null);
+
+    }
+
+}
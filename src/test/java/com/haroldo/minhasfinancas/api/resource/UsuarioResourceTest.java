@@ -1,11 +1,20 @@
 package com.haroldo.minhasfinancas.api.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
 import com.haroldo.minhasfinancas.api.dto.UsuarioDTO;
+import com.haroldo.minhasfinancas.autenticacao.AutenticacaoFilter;
+import com.haroldo.minhasfinancas.autenticacao.TokenAutenticacao;
+import com.haroldo.minhasfinancas.autenticacao.TokenEmitido;
 import com.haroldo.minhasfinancas.exception.ErroAutenticacaoException;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.exception.SobrecargaException;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
 import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.RelatorioService;
 import com.haroldo.minhasfinancas.service.UsuarioService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,6 +31,11 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioResource.class)
@@ -40,6 +54,12 @@ public class UsuarioResourceTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    RelatorioService relatorioService;
+
+    @MockBean
+    TokenAutenticacao tokenAutenticacao;
+
     @Test
     public void deveAutenticarUmUsuario() throws Exception {
 
@@ -58,6 +78,7 @@ public class UsuarioResourceTest {
                 .build();
 
         Mockito.when(service.autenticar(email, senha)).thenReturn(usuarioAutenticado);
+        Mockito.when(tokenAutenticacao.emitir(1L)).thenReturn(new TokenEmitido("token", Instant.parse("2021-06-01T20:00:00Z")));
 
         // Representa o json
         UsuarioDTO dto = UsuarioDTO.builder()
@@ -84,7 +105,9 @@ public class UsuarioResourceTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("id").value(usuarioAutenticado.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuarioAutenticado.getNome()))
-                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuarioAutenticado.getEmail()));
+                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuarioAutenticado.getEmail()))
+                .andExpect(MockMvcResultMatchers.jsonPath("token").value("token"))
+                .andExpect(MockMvcResultMatchers.jsonPath("senha").doesNotExist());
 
     }
 
@@ -125,6 +148,22 @@ public class UsuarioResourceTest {
 
     }
 
+    @Test
+    public void deveRetornarServiceUnavailableQuandoAVerificacaoDeSenhaEstaSobrecarregada() throws Exception {
+
+        //Cenario
+        Mockito.when(service.autenticar("usuario@email.com", "123"))
+                .thenThrow(new SobrecargaException("Muitas autenticações em andamento, tente novamente em instantes."));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.post(API.concat("/autenticar"))
+                        .contentType(JSON)
+                        .content("{\"email\":\"usuario@email.com\",\"senha\":\"123\"}"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+
+    }
+
     @Test
     public void deveCriarUmNovoUsuario() throws Exception {
 
@@ -210,5 +249,124 @@ public class UsuarioResourceTest {
 
     }
 
+    @Test
+    public void deveObterOResumoDoSaldoDoUsuario() throws Exception {
+
+        //Cenario
+        SaldoDTO saldo = new SaldoDTO(BigDecimal.valueOf(100), BigDecimal.valueOf(30));
+        Mockito.when(lancamentoService.obterResumoSaldoPorUsuario(1L)).thenReturn(Optional.of(saldo));
+
+        //Execucao e verificacao
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(API.concat("/1/saldo/resumo"))
+                .requestAttr(AutenticacaoFilter.USUARIO, 1L)
+                .accept(JSON);
+
+        mvc.perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("receitas").value(100))
+                .andExpect(MockMvcResultMatchers.jsonPath("despesas").value(30))
+                .andExpect(MockMvcResultMatchers.jsonPath("saldo").value(70));
+
+        //Com o token o usuario nao e consultado separadamente
+        Mockito.verify(service, Mockito.never()).obterPorId(Mockito.anyLong());
+
+    }
+
+    @Test
+    public void deveResponderNotModifiedSemCalcularOSaldoQuandoAVersaoNaoMudou() throws Exception {
+
+        //Cenario
+        Mockito.when(lancamentoService.obterVersaoLancamentos(1L)).thenReturn(4L);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).requestAttr(AutenticacaoFilter.USUARIO, 1L)
+                        .header("If-None-Match", "\"4\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""));
+
+        Mockito.verify(lancamentoService, Mockito.never()).obterResumoSaldoPorUsuario(Mockito.anyLong());
+
+    }
+
+    @Test
+    public void deveRetornarNotFoundAoObterSaldoDeUsuarioInexistente() throws Exception {
+
+        //Cenario
+        Mockito.when(lancamentoService.obterResumoSaldoPorUsuario(1L)).thenReturn(Optional.empty());
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+    }
+
+    @Test
+    public void deveRetornarNotFoundENaoNotModifiedParaUsuarioInexistenteComAVersaoZero() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.empty());
+        Mockito.when(lancamentoService.obterVersaoLancamentos(1L)).thenReturn(0L);
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("If-None-Match", "\"0\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo/resumo")).header("If-None-Match", "\"0\"").accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verifyNoInteractions(lancamentoService);
+
+    }
+
+    @Test
+    public void deveRecusarOSaldoEORelatorioDeOutroUsuarioQueNaoODoToken() throws Exception {
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/saldo")).requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/saldo/resumo")).requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/relatorio")).requestAttr(AutenticacaoFilter.USUARIO, 1L).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+        Mockito.verifyNoInteractions(lancamentoService, relatorioService);
+
+    }
+
+    @Test
+    public void deveObterORelatorioMensalDoUsuario() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(relatorioService.gerarRelatorio(1L, 2021, 1, 2021, 12)).thenReturn(Arrays.asList(
+                new RelatorioItemDTO(2021, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(500), 2L)));
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/relatorio"))
+                        .param("anoInicial", "2021")
+                        .param("mesInicial", "1")
+                        .param("anoFinal", "2021")
+                        .param("mesFinal", "12")
+                        .accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].mes").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].total").value(500))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].quantidade").value(2));
+
+    }
+
+    @Test
+    public void deveRetornarNotFoundAoObterRelatorioDeUsuarioInexistente() throws Exception {
+
+        //Cenario
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.empty());
+
+        //Execucao e verificacao
+        mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/relatorio")).accept(JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Mockito.verifyNoInteractions(relatorioService);
+
+    }
 
 }
@@ -0,0 +1,98 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public class AutenticacaoFilterTest {
+
+    private final TokenAutenticacao token = new TokenAutenticacao("segredo-de-teste-com-32-bytes-ou-mais", Duration.ofHours(8));
+
+    private MockHttpServletRequest requisicao(String autorizacao) {
+        return requisicao("/api/lancamentos", autorizacao);
+    }
+
+    private MockHttpServletRequest requisicao(String caminho, String autorizacao) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", caminho);
+        if (autorizacao != null)
+            request.addHeader("Authorization", autorizacao);
+        return request;
+    }
+
+    @Test
+    public void deveColocarOUsuarioDoTokenNaRequisicao() throws Exception {
+
+        //Cenario
+        MockHttpServletRequest request = requisicao("Bearer " + token.emitir(7L).getToken());
+        MockFilterChain chain = new MockFilterChain();
+
+        //Execucao
+        new AutenticacaoFilter(token, true, AutenticacaoConfig.CAMINHOS_PROTEGIDOS).doFilter(request, new MockHttpServletResponse(), chain);
+
+        //Verificacao
+        Assertions.assertThat(request.getAttribute(AutenticacaoFilter.USUARIO)).isEqualTo(7L);
+        Assertions.assertThat(chain.getRequest()).isSameAs(request);
+
+    }
+
+    @Test
+    public void deveRecusarTokenInvalidoMesmoSemAutenticacaoObrigatoria() throws Exception {
+
+        //Cenario
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        //Execucao
+        new AutenticacaoFilter(token, false, AutenticacaoConfig.CAMINHOS_PROTEGIDOS).doFilter(requisicao("Bearer 7.1.AAAA"), response, chain);
+
+        //Verificacao
+        Assertions.assertThat(response.getStatus()).isEqualTo(401);
+        Assertions.assertThat(response.getHeader("WWW-Authenticate")).isEqualTo("Bearer");
+        Assertions.assertThat(chain.getRequest()).isNull();
+
+    }
+
+    @Test
+    public void deveExigirOTokenApenasQuandoObrigatorio() throws Exception {
+
+        //Cenario
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        MockFilterChain semToken = new MockFilterChain();
+
+        //Execucao
+        new AutenticacaoFilter(token, true, AutenticacaoConfig.CAMINHOS_PROTEGIDOS).doFilter(requisicao(null), recusada, new MockFilterChain());
+        new AutenticacaoFilter(token, false, AutenticacaoConfig.CAMINHOS_PROTEGIDOS).doFilter(requisicao(null), new MockHttpServletResponse(), semToken);
+
+        //Verificacao
+        Assertions.assertThat(recusada.getStatus()).isEqualTo(401);
+        Assertions.assertThat(recusada.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("Informe o token de autenticação.");
+        Assertions.assertThat(semToken.getRequest()).isNotNull();
+        Assertions.assertThat(semToken.getRequest().getAttribute(AutenticacaoFilter.USUARIO)).isNull();
+
+    }
+
+    @Test
+    public void deveExigirOTokenNoSaldoENoRelatorioMasNaoNoCadastroENoLogin() throws Exception {
+
+        AutenticacaoFilter filtro = new AutenticacaoFilter(token, true, AutenticacaoConfig.CAMINHOS_PROTEGIDOS);
+
+        for (String caminho : new String[] {"/api/usuarios/1/saldo", "/api/usuarios/1/saldo/resumo", "/api/usuarios/1/relatorio", "/api/lancamentos/1/atualiza-status"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filtro.doFilter(requisicao(caminho, null), response, new MockFilterChain());
+            Assertions.assertThat(response.getStatus()).as(caminho).isEqualTo(401);
+        }
+
+        for (String caminho : new String[] {"/api/usuarios", "/api/usuarios/autenticar"}) {
+            MockFilterChain chain = new MockFilterChain();
+            filtro.doFilter(requisicao(caminho, null), new MockHttpServletResponse(), chain);
+            Assertions.assertThat(chain.getRequest()).as(caminho).isNotNull();
+        }
+
+    }
+
+}
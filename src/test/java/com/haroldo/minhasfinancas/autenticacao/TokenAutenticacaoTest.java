@@ -0,0 +1,70 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class TokenAutenticacaoTest {
+
+    private static final Instant AGORA = Instant.parse("2021-06-01T12:00:00Z");
+    private static final byte[] CHAVE = "segredo-de-teste-com-32-bytes-ou-mais".getBytes(StandardCharsets.UTF_8);
+
+    private TokenAutenticacao criar(byte[] chave, Instant agora) {
+        return new TokenAutenticacao(chave, Duration.ofHours(8), Clock.fixed(agora, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void deveEmitirTokenComExpiracaoEVerificarOUsuario() {
+
+        //Execucao
+        TokenEmitido emitido = criar(CHAVE, AGORA).emitir(10L);
+
+        //Verificacao
+        Assertions.assertThat(emitido.getExpiraEm()).isEqualTo(AGORA.plus(Duration.ofHours(8)));
+        Assertions.assertThat(criar(CHAVE, AGORA.plus(Duration.ofHours(7))).verificar(emitido.getToken())).contains(10L);
+
+    }
+
+    @Test
+    public void deveRecusarTokenExpirado() {
+
+        //Execucao
+        String token = criar(CHAVE, AGORA).emitir(10L).getToken();
+
+        //Verificacao
+        Assertions.assertThat(criar(CHAVE, AGORA.plus(Duration.ofHours(8))).verificar(token)).isEmpty();
+
+    }
+
+    @Test
+    public void deveRecusarTokenAlteradoOuAssinadoComOutraChave() {
+
+        //Cenario
+        TokenAutenticacao tokenAutenticacao = criar(CHAVE, AGORA);
+        String token = tokenAutenticacao.emitir(10L).getToken();
+        byte[] outraChave = "outro-segredo-de-teste-com-32-bytes".getBytes(StandardCharsets.UTF_8);
+
+        //Verificacao
+        Assertions.assertThat(tokenAutenticacao.verificar("11" + token.substring(2))).isEmpty();
+        Assertions.assertThat(tokenAutenticacao.verificar(token.substring(0, token.lastIndexOf('.')) + ".AAAA")).isEmpty();
+        Assertions.assertThat(criar(outraChave, AGORA).verificar(token)).isEmpty();
+        Assertions.assertThat(tokenAutenticacao.verificar("nao-e-um-token")).isEmpty();
+        Assertions.assertThat(tokenAutenticacao.verificar("10.x.%%%")).isEmpty();
+
+    }
+
+    @Test
+    public void deveRecusarSegredoCurto() {
+
+        Throwable erro = Assertions.catchThrowable(() -> new TokenAutenticacao("curto", Duration.ofHours(8)));
+
+        Assertions.assertThat(erro).isInstanceOf(IllegalArgumentException.class);
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.haroldo.minhasfinancas.autenticacao;
+
+import com.haroldo.minhasfinancas.exception.SobrecargaException;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VerificacaoSenhaTest {
+
+    private final CodificadorSenhaBCrypt codificador = new CodificadorSenhaBCrypt(4);
+
+    @Test
+    public void deveConferirSenhaComHashETexto() {
+
+        //Cenario
+        VerificacaoSenha verificacao = new VerificacaoSenha(codificador, Runnable::run, Duration.ofSeconds(5));
+        String hash = verificacao.codificar("senha");
+
+        //Verificacao
+        Assertions.assertThat(verificacao.confere("senha", hash)).isTrue();
+        Assertions.assertThat(verificacao.confere("outra", hash)).isFalse();
+        Assertions.assertThat(verificacao.confere("senha", "senha")).isTrue();
+        Assertions.assertThat(verificacao.confere(null, hash)).isFalse();
+        Assertions.assertThat(verificacao.precisaRecodificar(hash)).isFalse();
+        Assertions.assertThat(verificacao.precisaRecodificar("senha")).isTrue();
+        Assertions.assertThat(verificacao.precisaRecodificar(new CodificadorSenhaBCrypt(6).codificar("senha"))).isTrue();
+
+    }
+
+    @Test
+    public void deveRecusarQuandoOExecutorEstaOcupadoEAFilaCheia() throws Exception {
+
+        //Cenario - uma thread ocupada e nenhuma vaga na fila
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+
+            executor.execute(() -> {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> { });
+            VerificacaoSenha verificacao = new VerificacaoSenha(codificador, executor, Duration.ofSeconds(5));
+
+            //Execucao
+            Throwable erro = Assertions.catchThrowable(() -> verificacao.codificar("senha"));
+
+            //Verificacao
+            Assertions.assertThat(erro).isInstanceOf(SobrecargaException.class);
+
+        } finally {
+            liberar.countDown();
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void deveRecusarQuandoAEsperaTermina() throws Exception {
+
+        //Cenario - a tarefa fica na fila atras de uma que nao termina dentro da espera
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+
+            executor.execute(() -> {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            VerificacaoSenha verificacao = new VerificacaoSenha(codificador, executor, Duration.ofMillis(50));
+
+            //Execucao
+            Throwable erro = Assertions.catchThrowable(() -> verificacao.confere("senha", codificador.codificar("senha")));
+
+            //Verificacao
+            Assertions.assertThat(erro).isInstanceOf(SobrecargaException.class);
+
+        } finally {
+            liberar.countDown();
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void naoDeveCalcularOHashDaTarefaQueSaiDaFilaDepoisDaEspera() throws Exception {
+
+        //Cenario - a tarefa fica na fila ate depois da recusa
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger hashes = new AtomicInteger();
+        CodificadorSenha contador = new CodificadorSenhaBCrypt(4) {
+            @Override
+            public String codificar(String senha) {
+                hashes.incrementAndGet();
+                return super.codificar(senha);
+            }
+        };
+        try {
+
+            executor.execute(() -> {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            VerificacaoSenha verificacao = new VerificacaoSenha(contador, executor, Duration.ofMillis(50));
+
+            //Execucao
+            Throwable erro = Assertions.catchThrowable(() -> verificacao.codificar("senha"));
+            liberar.countDown();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+
+            //Verificacao
+            Assertions.assertThat(erro).isInstanceOf(SobrecargaException.class);
+            Assertions.assertThat(hashes.get()).isZero();
+
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+
+    }
+
+}
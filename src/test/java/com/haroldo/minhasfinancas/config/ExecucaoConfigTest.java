@@ -0,0 +1,65 @@
+package com.haroldo.minhasfinancas.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class ExecucaoConfigTest {
+
+    private final ApplicationContextRunner contexto = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(ExecucaoConfig.class)
+            .withPropertyValues("spring.task.execution.pool.max-size=16", "spring.task.execution.pool.queue-capacity=100");
+
+    @Test
+    public void deveUsarOPoolLimitadoNoModoPlataforma() {
+
+        contexto.run(aplicacao -> {
+
+            AsyncTaskExecutor executor = aplicacao.getBean("applicationTaskExecutor", AsyncTaskExecutor.class);
+
+            Assertions.assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+            Assertions.assertThat(((ThreadPoolTaskExecutor) executor).getMaxPoolSize()).isEqualTo(16);
+            Assertions.assertThat(aplicacao).doesNotHaveBean("threadsVirtuaisTomcat");
+
+        });
+
+    }
+
+    @Test
+    public void deveUsarThreadsVirtuaisQuandoAJvmOferece() throws Exception {
+
+        Assume.assumeTrue(Runtime.version().feature() >= 21);
+
+        contexto.withPropertyValues("minhasfinancas.execucao.modo=virtual").run(aplicacao -> {
+
+            AsyncTaskExecutor executor = aplicacao.getBean("applicationTaskExecutor", AsyncTaskExecutor.class);
+
+            Assertions.assertThat(executor).isInstanceOf(ConcurrentTaskExecutor.class);
+            Assertions.assertThat(aplicacao).hasBean("threadsVirtuaisTomcat");
+            Assertions.assertThat(executor.submit(() -> "executado").get()).isEqualTo("executado");
+
+        });
+
+    }
+
+    //Antes do Java 21 o modo virtual nao volta em silencio para o pool limitado
+    @Test
+    public void naoDeveIniciarNoModoVirtualSemThreadsVirtuais() {
+
+        Assume.assumeTrue(Runtime.version().feature() < 21);
+
+        contexto.withPropertyValues("minhasfinancas.execucao.modo=virtual").run(aplicacao ->
+                Assertions.assertThat(aplicacao).getFailure()
+                        .hasRootCauseInstanceOf(IllegalStateException.class)
+                        .hasStackTraceContaining("exige Java 21"));
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.haroldo.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+public class PoolConexoesConfigTest {
+
+    private HikariDataSource processar(MockEnvironment environment, String beanName) {
+        BeanPostProcessor postProcessor = PoolConexoesConfig.dimensionamentoPoolPostProcessor(environment);
+        return (HikariDataSource) postProcessor.postProcessBeforeInitialization(new HikariDataSource(), beanName);
+    }
+
+    @Test
+    public void deveDimensionarOPoolPeloNumeroDeNucleos() {
+
+        //Cenario
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("minhasfinancas.datasource.pool.dimensionar-pelos-nucleos", "true");
+
+        //Execucao
+        HikariDataSource pool = processar(environment, "dataSource");
+
+        //Verificacao
+        int esperado = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        Assertions.assertThat(pool.getMaximumPoolSize()).isEqualTo(esperado);
+        Assertions.assertThat(pool.getMinimumIdle()).isEqualTo(esperado);
+
+    }
+
+    @Test
+    public void deveManterOTamanhoInformadoNasPropriedades() {
+
+        //Cenario
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("minhasfinancas.datasource.pool.dimensionar-pelos-nucleos", "true")
+                .withProperty("minhasfinancas.datasource.replica.hikari.maximum-pool-size", "4");
+
+        //Execucao
+        HikariDataSource replica = processar(environment, "replicaDataSource");
+
+        //Verificacao
+        Assertions.assertThat(replica.getMaximumPoolSize()).isEqualTo(new HikariDataSource().getMaximumPoolSize());
+
+    }
+
+    @Test
+    public void naoDeveAlterarOPoolQuandoDesativado() {
+
+        //Execucao
+        HikariDataSource pool = processar(new MockEnvironment(), "dataSource");
+
+        //Verificacao
+        Assertions.assertThat(pool.getMaximumPoolSize()).isEqualTo(new HikariDataSource().getMaximumPoolSize());
+
+    }
+
+}
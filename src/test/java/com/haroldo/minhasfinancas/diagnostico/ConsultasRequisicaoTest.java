@@ -0,0 +1,84 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import com.haroldo.minhasfinancas.autenticacao.TokenAutenticacao;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.hasItem;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ConsultasRequisicaoTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    TokenAutenticacao tokenAutenticacao;
+
+    @After
+    public void limpar() {
+        lancamentoRepository.deleteAll();
+        saldoUsuarioRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    public void deveInformarOsComandosSqlDaRequisicaoERegistrarNoRelatorio() throws Exception {
+
+        //Cenario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento = lancamentoRepository.save(lancamento);
+
+        //Execucao e verificacao - a leitura do resumo e um unico select, o usuario do token nao e consultado
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/" + lancamento.getId())
+                        .header("Authorization", "Bearer " + tokenAutenticacao.emitir(usuario.getId()).getToken()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(ConsultasRequisicaoHeaderAdvice.QUANTIDADE, "1"))
+                .andExpect(MockMvcResultMatchers.header().exists(ConsultasRequisicaoHeaderAdvice.TEMPO))
+                .andExpect(MockMvcResultMatchers.header().exists(ConsultasRequisicaoHeaderAdvice.MAIS_LENTA));
+
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/requisicoeslentas"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].uri", hasItem("/api/lancamentos/{id}")));
+
+    }
+
+    @Test
+    public void deveRecusarRequisicaoSemTokenAntesDeConsultarOBanco() throws Exception {
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", "1"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.haroldo.minhasfinancas.diagnostico;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class RelatorioRequisicoesLentasTest {
+
+    private static final Instant AGORA = Instant.parse("2021-06-01T12:00:00Z");
+
+    private final RelatorioRequisicoesLentas relatorio =
+            new RelatorioRequisicoesLentas(2, Duration.ofMinutes(15), Clock.fixed(AGORA, ZoneOffset.UTC));
+
+    private RequisicaoLentaDTO requisicao(String uri, long duracaoMs, Instant instante) {
+        return RequisicaoLentaDTO.builder().uri(uri).duracaoMs(duracaoMs).instante(instante).build();
+    }
+
+    @Test
+    public void deveManterApenasAsMaisLentasOrdenadasPorDuracao() {
+
+        //Execucao
+        relatorio.registrar(requisicao("/a", 10, AGORA));
+        relatorio.registrar(requisicao("/b", 30, AGORA));
+        relatorio.registrar(requisicao("/c", 5, AGORA));
+        relatorio.registrar(requisicao("/d", 20, AGORA));
+
+        //Verificacao
+        Assertions.assertThat(relatorio.listar()).extracting(RequisicaoLentaDTO::getUri).containsExactly("/b", "/d");
+
+    }
+
+    @Test
+    public void deveDescartarRequisicoesForaDaJanela() {
+
+        //Execucao
+        relatorio.registrar(requisicao("/antiga", 100, AGORA.minus(Duration.ofMinutes(16))));
+        relatorio.registrar(requisicao("/recente", 10, AGORA.minus(Duration.ofMinutes(1))));
+
+        //Verificacao
+        Assertions.assertThat(relatorio.listar()).extracting(RequisicaoLentaDTO::getUri).containsExactly("/recente");
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.haroldo.minhasfinancas.metricas;
+
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+public class MetricasPrometheusTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    public void deveExporAsMetricasDasCamadasNoEndpointPrometheus() throws Exception {
+
+        //Cenario - uma requisicao que passa pelo resource, pelo servico e pelo repositorio e termina em erro de negocio
+        mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/autenticar")
+                        .contentType("application/json")
+                        .content("{\"email\":\"inexistente@email.com\",\"senha\":\"senha\"}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Criada e descartada, sem chegar a um tratamento: nao deve ser contada
+        new RegraNegocioException("Excecao descartada");
+
+        //Execucao
+        String metricas = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //Verificacao
+        Assertions.assertThat(metricas)
+                .contains("http_server_requests_seconds_bucket")
+                .contains("uri=\"/api/usuarios/autenticar\"")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("repository=\"UsuarioRepository\"")
+                .contains("minhasfinancas_servico_seconds_bucket")
+                .contains("metodo=\"autenticar\"")
+                .contains("minhasfinancas_excecoes_total{categoria=\"Usuário não encontrado para o email informado.\",excecao=\"ErroAutenticacaoException\",}")
+                .contains("hikaricp_connections_active")
+                .doesNotContain("Excecao descartada");
+
+    }
+
+}
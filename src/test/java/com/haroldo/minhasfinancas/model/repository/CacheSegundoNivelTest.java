@@ -0,0 +1,161 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Cada chamada ao repositorio abre a propria sessao, como nas requisicoes: o cache de segundo nivel
+//so e consultado por sessoes abertas depois que a entidade foi guardada
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CacheSegundoNivelTest {
+
+    private static final int REQUISICOES = 100;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Statistics estatisticas;
+
+    Usuario usuario;
+
+    @Before
+    public void cenario() {
+
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamentoRepository.save(lancamento);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        estatisticas = sessionFactory.getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+
+    }
+
+    @After
+    public void limpar() {
+        lancamentoRepository.deleteAll();
+        saldoUsuarioRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    public void deveBuscarOUsuarioPorIdNoBancoUmaUnicaVez() {
+
+        //Execucao - mesmo usuario em varias requisicoes
+        for (int i = 0; i < REQUISICOES; i++) {
+            assertThat(usuarioRepository.findById(usuario.getId())).isPresent();
+        }
+
+        //Verificacao
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(REQUISICOES - 1);
+
+    }
+
+    @Test
+    public void deveBuscarOUsuarioPorEmailPeloCacheDeConsultas() {
+
+        //Execucao
+        for (int i = 0; i < REQUISICOES; i++) {
+            assertThat(usuarioRepository.findByEmail(usuario.getEmail())).isPresent();
+        }
+
+        //Verificacao - a consulta vai ao banco uma vez, depois o id vem do cache de consultas e a entidade do segundo nivel
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(REQUISICOES - 1);
+        assertThat(usuarioRepository.findById(usuario.getId())).isPresent();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveCarregarOUsuarioDoLancamentoPeloCache() {
+
+        //Cenario
+        usuarioRepository.findById(usuario.getId());
+        estatisticas.clear();
+
+        //Execucao - o proxy lazy do usuario e inicializado a partir do cache, sem select em financas.usuario
+        String nome = new TransactionTemplate(transactionManager).execute(status ->
+                lancamentoRepository.findAll().get(0).getUsuario().getNome());
+
+        //Verificacao
+        assertThat(nome).isEqualTo(usuario.getNome());
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveInvalidarOsTotaisEmCacheQuandoUmLancamentoEhSalvo() {
+
+        //Cenario
+        Specification<Lancamento> doUsuario = LancamentoSpecifications.doUsuario(usuario.getId());
+        lancamentoRepository.obterSaldoUsuario(usuario.getId());
+        lancamentoRepository.totalizarPorMes(doUsuario);
+
+        //Execucao
+        lancamentoRepository.obterSaldoUsuario(usuario.getId());
+        List<RelatorioItemDTO> emCache = lancamentoRepository.totalizarPorMes(doUsuario);
+        long consultasAntesDaEscrita = estatisticas.getPrepareStatementCount();
+
+        Lancamento novo = LancamentoRepositoryTest.criarLancamento();
+        novo.setUsuario(usuario);
+        lancamentoRepository.save(novo);
+
+        List<RelatorioItemDTO> atualizado = lancamentoRepository.totalizarPorMes(doUsuario);
+
+        //Verificacao
+        assertThat(consultasAntesDaEscrita).isEqualTo(2);
+        assertThat(estatisticas.getQueryCacheHitCount()).isEqualTo(2);
+        assertThat(emCache.get(0).getTotal()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThat(atualizado.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(20));
+
+    }
+
+}
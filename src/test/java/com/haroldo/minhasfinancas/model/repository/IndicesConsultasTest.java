@@ -0,0 +1,65 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Confere pelo EXPLAIN do H2 que as consultas mais frequentes continuam usando os indices de
+//db/migration/h2. O indice lower(email) so existe no Postgres; no H2 o indice e na propria coluna
+@ActiveProfiles("test")
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class IndicesConsultasTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private String plano(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toLowerCase();
+    }
+
+    @Test
+    public void deveUsarOIndiceDeUsuarioAnoMesNaBuscaDeLancamentos() {
+        String plano = plano("select * from financas.lancamento where id_usuario = 1 and ano = 2022 and mes = 1 order by id");
+
+        assertThat(plano).contains("idx_lancamento_usuario_ano_mes");
+    }
+
+    @Test
+    public void deveUsarOIndiceDeUsuarioTipoStatusNaBuscaPorTipoEStatus() {
+        String plano = plano("select * from financas.lancamento where id_usuario = 1 and tipo = 'RECEITA' and status = 'EFETIVADO'");
+
+        assertThat(plano).contains("idx_lancamento_usuario_tipo_status");
+    }
+
+    @Test
+    public void naoDeveVarrerATabelaAoAplicarODeltaDoSaldo() {
+        String plano = plano("update financas.saldo_usuario set valor = valor + 10, quantidade = quantidade + 1 " +
+                "where id_usuario = 1 and ano = 2022 and mes = 1 and tipo = 'RECEITA' and status = 'PENDENTE'");
+
+        assertThat(plano).doesNotContain("tablescan");
+    }
+
+    @Test
+    public void naoDeveVarrerATabelaNaLeituraDoSaldo() {
+        String plano = plano("select sum(valor) from financas.saldo_usuario where id_usuario = 1");
+
+        assertThat(plano).doesNotContain("tablescan");
+    }
+
+    @Test
+    public void deveUsarOIndiceUnicoNaBuscaPorEmail() {
+        String plano = plano("select * from financas.usuario where email = 'usuario@email.com'");
+
+        assertThat(plano).contains("ux_usuario_email");
+    }
+
+}
@@ -1,21 +1,37 @@
 package com.haroldo.minhasfinancas.model.repository;
 
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.RelatorioItemDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
 import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
 import static org.assertj.core.api.Assertions.*; //Adicionado static
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
@@ -53,6 +69,14 @@ public class LancamentoRepositoryTest {
 
     }
 
+    private Statistics habilitarEstatisticas() {
+        Statistics estatisticas = entityManager.getEntityManager()
+                .getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+        return estatisticas;
+    }
+
     @Test
     public void deveSalvarUmLancamento() {
 
@@ -120,5 +144,302 @@ public class LancamentoRepositoryTest {
 
     }
 
+    @Test
+    public void deveObterReceitasDespesasESaldoEmUmaUnicaConsulta() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        Lancamento receita = criarLancamento();
+        receita.setUsuario(usuario);
+        receita.setValor(BigDecimal.valueOf(100));
+        entityManager.persist(receita);
+
+        Lancamento despesa = criarLancamento();
+        despesa.setUsuario(usuario);
+        despesa.setTipo(TipoLancamento.DESPESA);
+        despesa.setValor(BigDecimal.valueOf(30));
+        entityManager.persist(despesa);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics estatisticas = habilitarEstatisticas();
+
+        //Acao
+        Optional<SaldoDTO> saldo = repository.obterSaldoUsuario(usuario.getId());
+
+        //Verificacao - static org.assertj.core.api.Assertions
+        assertThat(saldo).isPresent();
+        assertThat(saldo.get().getReceitas()).isEqualByComparingTo("100");
+        assertThat(saldo.get().getDespesas()).isEqualByComparingTo("30");
+        assertThat(saldo.get().getSaldo()).isEqualByComparingTo("70");
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveRetornarSaldoZeradoParaUsuarioSemLancamentos() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        //Acao
+        Optional<SaldoDTO> saldo = repository.obterSaldoUsuario(usuario.getId());
+
+        //Verificacao
+        assertThat(saldo).isPresent();
+        assertThat(saldo.get().getSaldo()).isEqualByComparingTo(BigDecimal.ZERO);
+
+    }
+
+    @Test
+    public void deveRetornarVazioAoObterSaldoDeUsuarioInexistente() {
+
+        //Acao
+        Optional<SaldoDTO> saldo = repository.obterSaldoUsuario(-1L);
+
+        //Verificacao
+        assertThat(saldo).isEmpty();
+
+    }
+
+    @Test
+    public void deveBuscarAPartirDoCursorOrdenadoPorAnoMesEId() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        int[][] periodos = {{2021, 12}, {2022, 1}, {2022, 1}, {2022, 3}};
+        Lancamento[] lancamentos = new Lancamento[periodos.length];
+        for (int i = 0; i < periodos.length; i++) {
+            lancamentos[i] = criarLancamento();
+            lancamentos[i].setAno(periodos[i][0]);
+            lancamentos[i].setMes(periodos[i][1]);
+            lancamentos[i].setUsuario(usuario);
+            entityManager.persist(lancamentos[i]);
+        }
+
+        Specification<Lancamento> specification = Specification
+                .where(LancamentoSpecifications.doUsuario(usuario.getId()))
+                .and(LancamentoSpecifications.aposCursor(CursorLancamento.de(LancamentoResumoDTO.de(lancamentos[1]))));
+
+        //Acao
+        List<LancamentoResumoDTO> resultado = repository.buscarResumosLimitado(specification, Sort.by("ano", "mes", "id"), 10);
+
+        //Verificacao
+        assertThat(resultado).extracting(LancamentoResumoDTO::getId)
+                .containsExactly(lancamentos[2].getId(), lancamentos[3].getId());
+
+    }
+
+    @Test
+    public void deveFiltrarLancamentosPorPeriodoTipoEValor() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        Lancamento foraDoPeriodo = criarLancamento();
+        foraDoPeriodo.setUsuario(usuario);
+        foraDoPeriodo.setAno(2021);
+        foraDoPeriodo.setMes(5);
+        entityManager.persist(foraDoPeriodo);
+
+        Lancamento esperado = criarLancamento();
+        esperado.setUsuario(usuario);
+        esperado.setAno(2021);
+        esperado.setMes(6);
+        esperado.setDescricao("Conta de Luz");
+        entityManager.persist(esperado);
+
+        Lancamento outroTipo = criarLancamento();
+        outroTipo.setUsuario(usuario);
+        outroTipo.setAno(2022);
+        outroTipo.setTipo(TipoLancamento.DESPESA);
+        entityManager.persist(outroTipo);
+
+        LancamentoFilter filtro = LancamentoFilter.builder()
+                .idUsuario(usuario.getId())
+                .anoInicial(2021).mesInicial(6)
+                .anoFinal(2022).mesFinal(12)
+                .tipo(TipoLancamento.RECEITA)
+                .valorMinimo(BigDecimal.ONE)
+                .descricao("luz")
+                .build();
+
+        //Acao
+        List<Lancamento> resultado = repository.findAll(LancamentoSpecifications.doFiltro(filtro));
+
+        //Verificacao
+        assertThat(resultado).containsExactly(esperado);
+
+    }
+
+    @Test
+    public void deveTratarPorcentagemESublinhadoDaDescricaoComoLiterais() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        Lancamento esperado = criarLancamento();
+        esperado.setUsuario(usuario);
+        esperado.setDescricao("Desconto 10% conta_luz");
+        entityManager.persist(esperado);
+
+        Lancamento outro = criarLancamento();
+        outro.setUsuario(usuario);
+        outro.setDescricao("Desconto 100 contaXluz");
+        entityManager.persist(outro);
+
+        //Acao
+        List<Lancamento> porcentagem = repository.findAll(Specification
+                .where(LancamentoSpecifications.doUsuario(usuario.getId()))
+                .and(LancamentoSpecifications.descricaoContendo("10%")));
+        List<Lancamento> sublinhado = repository.findAll(Specification
+                .where(LancamentoSpecifications.doUsuario(usuario.getId()))
+                .and(LancamentoSpecifications.descricaoContendo("conta_")));
+
+        //Verificacao
+        assertThat(porcentagem).containsExactly(esperado);
+        assertThat(sublinhado).containsExactly(esperado);
+
+    }
+
+    @Test
+    public void deveBuscarApenasAsColunasDoResumoSemCarregarOUsuario() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        Lancamento lancamento = criarLancamento();
+        lancamento.setUsuario(usuario);
+        entityManager.persist(lancamento);
+        entityManager.persist(criarLancamento());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics estatisticas = habilitarEstatisticas();
+
+        //Acao
+        Page<LancamentoResumoDTO> pagina = repository.buscarResumos(
+                LancamentoSpecifications.doUsuario(usuario.getId()), PageRequest.of(0, 10, Sort.by("id")));
+        Optional<LancamentoResumoDTO> resumo = repository.findResumoById(lancamento.getId());
+
+        //Verificacao - nenhuma entidade carregada, a pagina incompleta dispensa a contagem
+        assertThat(pagina.getContent()).extracting(LancamentoResumoDTO::getUsuarioId).containsExactly(usuario.getId());
+        assertThat(pagina.getTotalElements()).isEqualTo(1);
+        assertThat(resumo).isPresent();
+        assertThat(resumo.get().getDescricao()).isEqualTo(lancamento.getDescricao());
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+
+    }
+
+    @Test
+    public void deveTransmitirOsResumosOrdenadosSemCarregarEntidades() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        for (int mes = 3; mes >= 1; mes--) {
+            Lancamento lancamento = criarLancamento();
+            lancamento.setUsuario(usuario);
+            lancamento.setMes(mes);
+            entityManager.persist(lancamento);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics estatisticas = habilitarEstatisticas();
+
+        //Acao
+        List<Integer> meses;
+        try (Stream<LancamentoResumoDTO> resumos = repository.transmitirResumos(
+                LancamentoSpecifications.doUsuario(usuario.getId()), Sort.by("ano", "mes", "id"))) {
+            meses = resumos.map(LancamentoResumoDTO::getMes).collect(Collectors.toList());
+        }
+
+        //Verificacao
+        assertThat(meses).containsExactly(1, 2, 3);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveTotalizarPorMesTipoEStatusNoPeriodo() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        int[][] anoMes = {{2020, 12}, {2021, 1}, {2021, 1}, {2021, 2}, {2021, 3}};
+        for (int[] periodo : anoMes) {
+            Lancamento lancamento = criarLancamento();
+            lancamento.setUsuario(usuario);
+            lancamento.setAno(periodo[0]);
+            lancamento.setMes(periodo[1]);
+            entityManager.persist(lancamento);
+        }
+        Lancamento despesa = criarLancamento();
+        despesa.setUsuario(usuario);
+        despesa.setAno(2021);
+        despesa.setMes(1);
+        despesa.setTipo(TipoLancamento.DESPESA);
+        entityManager.persist(despesa);
+
+        Specification<Lancamento> specification = Specification
+                .where(LancamentoSpecifications.doUsuario(usuario.getId()))
+                .and(LancamentoSpecifications.aPartirDe(2021, 1))
+                .and(LancamentoSpecifications.ate(2021, 2));
+
+        //Acao
+        List<RelatorioItemDTO> relatorio = repository.totalizarPorMes(specification);
+
+        //Verificacao
+        assertThat(relatorio).extracting(RelatorioItemDTO::getMes, RelatorioItemDTO::getTipo, RelatorioItemDTO::getQuantidade)
+                .containsExactly(
+                        tuple(1, TipoLancamento.DESPESA, 1L),
+                        tuple(1, TipoLancamento.RECEITA, 2L),
+                        tuple(2, TipoLancamento.RECEITA, 1L));
+        assertThat(relatorio.get(1).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(20));
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusDosIdsDoUsuarioEmUmUnicoUpdate() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        Usuario outro = UsuarioRepositoryTest.criarUsuario();
+        outro.setEmail("outro@email.com");
+        entityManager.persist(outro);
+        Lancamento primeiro = criarLancamento();
+        primeiro.setUsuario(usuario);
+        Lancamento segundo = criarLancamento();
+        segundo.setUsuario(usuario);
+        segundo.setStatus(StatusLancamento.EFETIVADO);
+        Lancamento doOutro = criarLancamento();
+        doOutro.setUsuario(outro);
+        Stream.of(primeiro, segundo, doOutro).forEach(entityManager::persist);
+        entityManager.flush();
+
+        Specification<Lancamento> specification = Specification
+                .where(LancamentoSpecifications.doUsuario(usuario.getId()))
+                .and(LancamentoSpecifications.dosIds(List.of(primeiro.getId(), segundo.getId(), doOutro.getId())))
+                .and(LancamentoSpecifications.comStatusDiferenteDe(StatusLancamento.EFETIVADO));
+        Statistics estatisticas = habilitarEstatisticas();
+
+        //Acao
+        List<SaldoUsuario> bloqueados = repository.bloquearParaSaldo(specification, 10);
+        int atualizados = repository.atualizarStatus(specification, StatusLancamento.EFETIVADO);
+
+        //Verificacao - 1 select ... for update com as colunas do resumo e 1 update
+        assertThat(atualizados).isEqualTo(1);
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(bloqueados).extracting(SaldoUsuario::getIdUsuario, SaldoUsuario::getStatus, SaldoUsuario::getQuantidade)
+                .containsExactly(tuple(usuario.getId(), StatusLancamento.PENDENTE, 1L));
+        assertThat(bloqueados.get(0).getValor()).isEqualByComparingTo(primeiro.getValor());
+
+        entityManager.clear();
+        assertThat(entityManager.find(Lancamento.class, primeiro.getId()).getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        assertThat(entityManager.find(Lancamento.class, doOutro.getId()).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+
+    }
 
 }
@@ -0,0 +1,105 @@
+package com.haroldo.minhasfinancas.model.repository;
+
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@ActiveProfiles("test")
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SaldoUsuarioRepositoryTest {
+
+    @Autowired
+    SaldoUsuarioRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    private SaldoUsuario criarEPersistirSaldo(Long idUsuario, TipoLancamento tipo, BigDecimal valor) {
+        return entityManager.persist(new SaldoUsuario(idUsuario, 2022, 1, tipo, StatusLancamento.PENDENTE, valor, 1L));
+    }
+
+    @Test
+    public void deveAplicarODeltaNaLinhaExistente() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        SaldoUsuario saldo = criarEPersistirSaldo(usuario.getId(), TipoLancamento.RECEITA, BigDecimal.valueOf(100));
+
+        //Acao
+        repository.aplicarDelta(usuario.getId(), 2022, 1, TipoLancamento.RECEITA,
+                StatusLancamento.PENDENTE, BigDecimal.valueOf(-40), -1L);
+        entityManager.clear();
+
+        //Verificacao
+        SaldoUsuario saldoAtualizado = entityManager.find(SaldoUsuario.class, saldo.getId());
+        Assertions.assertThat(saldoAtualizado.getValor()).isEqualByComparingTo("60");
+        Assertions.assertThat(saldoAtualizado.getQuantidade()).isEqualTo(0L);
+        Assertions.assertThat(repository.count()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveCriarALinhaComODeltaQuandoAindaNaoExiste() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        //Acao
+        repository.aplicarDelta(usuario.getId(), 2022, 1, TipoLancamento.RECEITA,
+                StatusLancamento.PENDENTE, BigDecimal.TEN, 1L);
+        repository.aplicarDelta(usuario.getId(), 2022, 1, TipoLancamento.RECEITA,
+                StatusLancamento.PENDENTE, BigDecimal.ONE, 1L);
+
+        //Verificacao
+        Assertions.assertThat(repository.findAll()).singleElement().satisfies(saldo -> {
+            Assertions.assertThat(saldo.getValor()).isEqualByComparingTo("11");
+            Assertions.assertThat(saldo.getQuantidade()).isEqualTo(2L);
+        });
+
+    }
+
+    @Test
+    public void deveObterOSaldoAPartirDoResumo() {
+
+        //Cenario
+        Usuario usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+        criarEPersistirSaldo(usuario.getId(), TipoLancamento.RECEITA, BigDecimal.valueOf(100));
+        criarEPersistirSaldo(usuario.getId(), TipoLancamento.DESPESA, BigDecimal.valueOf(30));
+
+        //Acao
+        Optional<SaldoDTO> saldo = repository.obterSaldoUsuario(usuario.getId());
+
+        //Verificacao
+        Assertions.assertThat(saldo).isPresent();
+        Assertions.assertThat(saldo.get().getSaldo()).isEqualByComparingTo("70");
+
+    }
+
+    @Test
+    public void deveRetornarVazioAoObterSaldoDeUsuarioInexistente() {
+
+        //Acao
+        Optional<SaldoDTO> saldo = repository.obterSaldoUsuario(-1L);
+
+        //Verificacao
+        Assertions.assertThat(saldo).isEmpty();
+
+    }
+
+}
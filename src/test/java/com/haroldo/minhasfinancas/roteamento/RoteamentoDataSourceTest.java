@@ -0,0 +1,150 @@
+package com.haroldo.minhasfinancas.roteamento;
+
+import com.haroldo.minhasfinancas.config.CacheConfig;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.haroldo.minhasfinancas.service.LancamentoService;
+import com.haroldo.minhasfinancas.service.SaldoUsuarioService;
+import com.haroldo.minhasfinancas.service.UsuarioService;
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+//Dois bancos H2 em memoria: o do perfil test como primario e "replica", com o mesmo esquema e sem replicacao,
+//entao o que foi gravado no primario so e encontrado quando a leitura vai para o primario
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "minhasfinancas.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_ON_EXIT=FALSE;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+        "minhasfinancas.datasource.replica.username=sa",
+        "minhasfinancas.datasource.replica.password=password",
+        "minhasfinancas.datasource.replica.hikari.maximum-pool-size=2",
+        "minhasfinancas.datasource.replica.janela-consistencia=1m"
+})
+@ActiveProfiles("test")
+public class RoteamentoDataSourceTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    SaldoUsuarioService saldoUsuarioService;
+
+    @Autowired
+    UsuarioService usuarioService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Before
+    public void migrarReplica() {
+        Flyway.configure()
+                .dataSource(replicaDataSource)
+                .locations("classpath:db/migration/h2")
+                .schemas("financas")
+                .load()
+                .migrate();
+    }
+
+    @After
+    public void limpar() {
+        lancamentoRepository.deleteAll();
+        saldoUsuarioRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.SALDOS).clear();
+        cacheManager.getCache(CacheConfig.USUARIOS).clear();
+    }
+
+    private String bancoDaTransacao(boolean readOnly) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(readOnly);
+        return transacao.execute(status -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+    }
+
+    @Test
+    public void deveEnviarAsTransacoesReadOnlyParaAReplica() {
+
+        Assertions.assertThat(bancoDaTransacao(true)).isEqualToIgnoringCase("replica");
+        Assertions.assertThat(bancoDaTransacao(false)).isEqualToIgnoringCase("dcbapp");
+        Assertions.assertThat(new JdbcTemplate(dataSource).queryForObject("select database()", String.class))
+                .isEqualToIgnoringCase("dcbapp");
+
+    }
+
+    @Test
+    public void deveLerDoPrimarioQuandoOUsuarioGravouDentroDaJanela() {
+
+        //Cenario: o usuario so existe no primario
+        Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+        Assertions.assertThat(saldoUsuarioService.obterSaldoPorUsuario(usuario.getId())).isEmpty();
+
+        //Execucao
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamentoService.salvar(lancamento);
+
+        //Verificacao
+        Assertions.assertThat(saldoUsuarioService.obterSaldoPorUsuario(usuario.getId())).isPresent();
+
+    }
+
+    @Test
+    public void deveEncontrarOUsuarioELancamentoRecemGravadosSemPassarPelosCaches() {
+
+        //Cenario: o usuario e o lancamento so existem no primario
+        Usuario usuario = usuarioService.salvarUsuario(UsuarioRepositoryTest.criarUsuario());
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+        lancamento = lancamentoService.salvar(lancamento);
+        cacheManager.getCache(CacheConfig.USUARIOS).clear();
+        entityManagerFactory.getCache().evictAll();
+
+        //Verificacao
+        Assertions.assertThat(usuarioService.autenticar("usuario@email.com", "senha").getId()).isEqualTo(usuario.getId());
+        Assertions.assertThat(usuarioService.obterPorId(usuario.getId())).isPresent();
+        Assertions.assertThat(lancamentoService.opterPorId(lancamento.getId())).isPresent();
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.model.repository.DescricaoLancamento;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.service.impl.BuscaDescricaoMemoriaServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class BuscaDescricaoMemoriaServiceTest {
+
+    @SpyBean
+    BuscaDescricaoMemoriaServiceImpl service;
+
+    @MockBean
+    LancamentoRepository repository;
+
+    @Before
+    public void limparIndice() {
+        //O bean e compartilhado entre os testes
+        service.invalidar(1L);
+    }
+
+    private DescricaoLancamento descricao(Long id, String texto) {
+        return new DescricaoLancamento() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescricao() {
+                return texto;
+            }
+        };
+    }
+
+    private void cenario() {
+        Mockito.when(repository.findDescricoesByUsuario(1L)).thenReturn(Arrays.asList(
+                descricao(1L, "Conta de Luz"),
+                descricao(2L, "Supermercado do mês"),
+                descricao(3L, "Mercado"),
+                descricao(4L, "Salário")));
+    }
+
+    @Test
+    public void deveOrdenarPalavraExataAntesDoPrefixo() {
+
+        //Cenario
+        cenario();
+
+        //Execucao
+        Page<Long> resultado = service.buscarIds(1L, "merc", PageRequest.of(0, 10));
+        Page<Long> exato = service.buscarIds(1L, "MERCADO", PageRequest.of(0, 10));
+
+        //Verificacao - "supermercado" nao comeca com "merc"
+        Assertions.assertThat(resultado.getContent()).containsExactly(3L);
+        Assertions.assertThat(exato.getContent()).containsExactly(3L);
+
+    }
+
+    @Test
+    public void deveIgnorarAcentosEExigirTodasAsPalavras() {
+
+        //Cenario
+        cenario();
+
+        //Execucao
+        Page<Long> resultado = service.buscarIds(1L, "supermercado mes", PageRequest.of(0, 10));
+        Page<Long> semResultado = service.buscarIds(1L, "luz salario", PageRequest.of(0, 10));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getContent()).containsExactly(2L);
+        Assertions.assertThat(semResultado.getContent()).isEmpty();
+
+    }
+
+    @Test
+    public void deveMontarOIndiceUmaVezEReconstruirAposInvalidar() {
+
+        //Cenario
+        cenario();
+
+        //Execucao
+        service.buscarIds(1L, "luz", PageRequest.of(0, 10));
+        service.buscarIds(1L, "conta", PageRequest.of(0, 10));
+        service.invalidar(1L);
+        Page<Long> resultado = service.buscarIds(1L, "luz", PageRequest.of(0, 10));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getContent()).containsExactly(1L);
+        Mockito.verify(repository, Mockito.times(2)).findDescricoesByUsuario(1L);
+
+    }
+
+    @Test
+    public void deveDescartarOIndiceSomenteAposOCommit() {
+
+        //Cenario
+        cenario();
+        service.buscarIds(1L, "luz", PageRequest.of(0, 10));
+
+        //Execucao - a escrita ainda nao foi confirmada
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.invalidar(1L);
+            service.buscarIds(1L, "luz", PageRequest.of(0, 10));
+            Mockito.verify(repository, Mockito.times(1)).findDescricoesByUsuario(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        service.buscarIds(1L, "luz", PageRequest.of(0, 10));
+
+        //Verificacao
+        Mockito.verify(repository, Mockito.times(2)).findDescricoesByUsuario(1L);
+
+    }
+
+    @Test
+    public void devePaginarOResultado() {
+
+        //Cenario
+        Mockito.when(repository.findDescricoesByUsuario(1L)).thenReturn(Arrays.asList(
+                descricao(1L, "Mercado"), descricao(2L, "Mercado"), descricao(3L, "Mercado")));
+
+        //Execucao
+        Page<Long> resultado = service.buscarIds(1L, "mercado", PageRequest.of(1, 2));
+
+        //Verificacao - mesma relevancia, ordena pelo id mais recente
+        Assertions.assertThat(resultado.getContent()).containsExactly(1L);
+        Assertions.assertThat(resultado.getTotalElements()).isEqualTo(3);
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.config.CacheConfig;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+
+//Sem transacao no teste: as remocoes do cache dependem do commit
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class CacheServicosTest {
+
+    @Autowired
+    UsuarioService usuarioService;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    Usuario usuario;
+
+    @Before
+    public void cenario() {
+        usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+    }
+
+    @After
+    public void limpar() {
+        lancamentoRepository.deleteAll();
+        saldoUsuarioRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.USUARIOS).clear();
+        cacheManager.getCache(CacheConfig.SALDOS).clear();
+    }
+
+    @Test
+    public void deveGuardarApenasUsuariosExistentesNoCache() {
+
+        //Execucao
+        usuarioService.obterPorId(usuario.getId());
+        usuarioService.obterPorId(-1L);
+
+        //Verificacao
+        Cache usuarios = cacheManager.getCache(CacheConfig.USUARIOS);
+        Assertions.assertThat(usuarios.get(usuario.getId())).isNotNull();
+        Assertions.assertThat(usuarios.get(-1L)).isNull();
+        Assertions.assertThat(usuarioService.obterPorId(usuario.getId()).get().getEmail()).isEqualTo(usuario.getEmail());
+
+    }
+
+    @Test
+    public void deveRemoverOSaldoDoCacheQuandoUmLancamentoEhSalvo() {
+
+        //Cenario
+        Cache saldos = cacheManager.getCache(CacheConfig.SALDOS);
+        Assertions.assertThat(lancamentoService.obterResumoSaldoPorUsuario(usuario.getId()).get().getReceitas()).isZero();
+        Assertions.assertThat(saldos.get(usuario.getId())).isNotNull();
+
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(usuario);
+
+        //Execucao
+        lancamentoService.salvar(lancamento);
+
+        //Verificacao
+        Assertions.assertThat(saldos.get(usuario.getId())).isNull();
+        Assertions.assertThat(lancamentoService.obterResumoSaldoPorUsuario(usuario.getId()).get().getReceitas())
+                .isEqualByComparingTo(BigDecimal.TEN);
+
+    }
+
+}
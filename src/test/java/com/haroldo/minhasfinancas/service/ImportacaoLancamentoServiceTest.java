@@ -0,0 +1,171 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haroldo.minhasfinancas.api.arquivo.LeitorLancamentosCsv;
+import com.haroldo.minhasfinancas.api.arquivo.LeitorLancamentosJson;
+import com.haroldo.minhasfinancas.api.dto.ImportacaoResultadoDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
+import com.haroldo.minhasfinancas.exception.RegraNegocioException;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.haroldo.minhasfinancas.service.impl.BuscaDescricaoMemoriaServiceImpl;
+import com.haroldo.minhasfinancas.service.impl.ImportacaoLancamentoServiceImpl;
+import com.haroldo.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.haroldo.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "minhasfinancas.importacao.tamanho-lote=50")
+@Import({ImportacaoLancamentoServiceImpl.class, LancamentoServiceImpl.class, SaldoUsuarioServiceImpl.class, BuscaDescricaoMemoriaServiceImpl.class})
+public class ImportacaoLancamentoServiceTest {
+
+    @Autowired
+    ImportacaoLancamentoService service;
+
+    @Autowired
+    SaldoUsuarioService saldoUsuarioService;
+
+    @Autowired
+    LancamentoRepository repository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Usuario usuario;
+
+    @Before
+    public void cenario() {
+        usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+    }
+
+    private ByteArrayInputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void deveImportarCsvEmLotesComUmInsertPreparadoPorLote() {
+
+        //Cenario
+        StringBuilder csv = new StringBuilder("descricao;mes;ano;valor;tipo;status\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("\"Compra; item ").append(i).append("\";1;2020;10,50;DESPESA;EFETIVADO\n");
+        }
+
+        Statistics estatisticas = entityManager.getEntityManager()
+                .getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+
+        //Execucao
+        ImportacaoResultadoDTO resultado = service.importar(usuario, new LeitorLancamentosCsv(entrada(csv.toString())));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getLinhasLidas()).isEqualTo(120);
+        Assertions.assertThat(resultado.getLinhasImportadas()).isEqualTo(120);
+        Assertions.assertThat(resultado.getErros()).isEmpty();
+        Assertions.assertThat(estatisticas.getEntityStatistics(Lancamento.class.getName()).getInsertCount()).isEqualTo(120);
+        //3 lotes: sequencia, insert em lote e atualizacao do resumo por lote, longe de um comando por linha
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isLessThan(20);
+
+        Assertions.assertThat(repository.findAll()).extracting("descricao").contains("Compra; item 0");
+        SaldoDTO saldo = saldoUsuarioService.obterSaldoPorUsuario(usuario.getId()).get();
+        Assertions.assertThat(saldo.getDespesas()).isEqualByComparingTo(new BigDecimal("1260.00"));
+
+    }
+
+    @Test
+    public void deveRelatarAsLinhasInvalidasEImportarAsDemais() {
+
+        //Cenario
+        String json = "[" +
+                "{\"descricao\":\"Salario\",\"mes\":1,\"ano\":2020,\"valor\":100,\"tipo\":\"RECEITA\"}," +
+                "{\"descricao\":\"\",\"mes\":1,\"ano\":2020,\"valor\":100,\"tipo\":\"RECEITA\"}," +
+                "{\"descricao\":\"Aluguel\",\"mes\":13,\"ano\":2020,\"valor\":50,\"tipo\":\"DESPESA\"}," +
+                "{\"descricao\":\"Mercado\",\"mes\":2,\"ano\":2020,\"valor\":\"abc\",\"tipo\":\"DESPESA\"}," +
+                "{\"descricao\":\"Bonus\",\"mes\":2,\"ano\":2020,\"valor\":30,\"tipo\":\"OUTRO\"}" +
+                "]";
+
+        //Execucao
+        ImportacaoResultadoDTO resultado = service.importar(usuario, new LeitorLancamentosJson(new ObjectMapper(), entrada(json)));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getLinhasLidas()).isEqualTo(5);
+        Assertions.assertThat(resultado.getLinhasImportadas()).isEqualTo(1);
+        Assertions.assertThat(resultado.getErros()).extracting("linha").containsExactly(2, 3, 4, 5);
+        Assertions.assertThat(repository.findAll()).extracting("descricao").containsExactly("Salario");
+
+    }
+
+    @Test
+    public void deveRelatarAsLinhasInvalidasDoCsvPeloNumeroDaLinhaNoArquivo() {
+
+        //Cenario - cabecalho na linha 1 e uma linha em branco que nao conta como lancamento
+        String csv = "descricao;mes;ano;valor;tipo\n" +
+                "Salario;1;2020;100;RECEITA\n" +
+                "\n" +
+                "Mercado;2;2020;abc;DESPESA\n" +
+                "Aluguel;13;2020;50;DESPESA\n";
+
+        //Execucao
+        ImportacaoResultadoDTO resultado = service.importar(usuario, new LeitorLancamentosCsv(entrada(csv)));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getLinhasLidas()).isEqualTo(3);
+        Assertions.assertThat(resultado.getLinhasImportadas()).isEqualTo(1);
+        Assertions.assertThat(resultado.getErros()).extracting("linha").containsExactly(4, 5);
+        Assertions.assertThat(repository.findAll()).extracting("descricao").containsExactly("Salario");
+
+    }
+
+    @Test
+    public void deveGravarOQueFoiLidoAntesDeUmErroDeSintaxeNoJson() {
+
+        //Cenario - 60 lancamentos validos (um lote de 50 e 10 pendentes) e um elemento mal formado
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 60; i++) {
+            json.append("{\"descricao\":\"Compra ").append(i).append("\",\"mes\":1,\"ano\":2020,\"valor\":10,\"tipo\":\"DESPESA\"},");
+        }
+        json.append("{\"descricao\": }, {\"descricao\":\"Depois\"}]");
+
+        //Execucao
+        ImportacaoResultadoDTO resultado = service.importar(usuario, new LeitorLancamentosJson(new ObjectMapper(), entrada(json.toString())));
+
+        //Verificacao
+        Assertions.assertThat(resultado.getLinhasLidas()).isEqualTo(60);
+        Assertions.assertThat(resultado.getLinhasImportadas()).isEqualTo(60);
+        Assertions.assertThat(resultado.getErros()).extracting("linha").containsExactly(61);
+        Assertions.assertThat(resultado.getErros().get(0).getMensagem()).startsWith("JSON inválido no lançamento 61");
+        Assertions.assertThat(repository.count()).isEqualTo(60);
+        Assertions.assertThat(saldoUsuarioService.obterSaldoPorUsuario(usuario.getId()).get().getDespesas())
+                .isEqualByComparingTo(new BigDecimal("600"));
+
+    }
+
+    @Test(expected = RegraNegocioException.class)
+    public void deveRecusarCsvSemAsColunasObrigatorias() {
+        new LeitorLancamentosCsv(entrada("descricao;mes;ano\nTeste;1;2020\n"));
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.model.repository.UsuarioRepositoryTest;
+import com.haroldo.minhasfinancas.service.impl.BuscaDescricaoMemoriaServiceImpl;
+import com.haroldo.minhasfinancas.service.impl.LancamentoServiceImpl;
+import com.haroldo.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+//Quantidade de comandos SQL emitidos pelos caminhos de leitura e de atualizacao de status
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({LancamentoServiceImpl.class, SaldoUsuarioServiceImpl.class, BuscaDescricaoMemoriaServiceImpl.class})
+public class LancamentoServiceEstatisticasTest {
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Statistics estatisticas;
+
+    Usuario usuario;
+
+    Lancamento lancamento;
+
+    @Before
+    public void cenario() {
+
+        usuario = entityManager.persist(UsuarioRepositoryTest.criarUsuario());
+
+        for (int i = 0; i < 3; i++) {
+            Lancamento novo = LancamentoRepositoryTest.criarLancamento();
+            novo.setUsuario(usuario);
+            lancamento = service.salvar(novo);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        estatisticas = entityManager.getEntityManager()
+                .getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+
+    }
+
+    @Test
+    public void deveBuscarComUmaUnicaConsultaSemCarregarUsuarios() {
+
+        //Execucao
+        List<LancamentoResumoDTO> resultado = service.buscar(LancamentoFilter.builder().idUsuario(usuario.getId()).build());
+
+        //Verificacao
+        Assertions.assertThat(resultado).hasSize(3);
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+
+    }
+
+    @Test
+    public void deveObterPorIdSemConsultarOUsuario() {
+
+        //Execucao
+        Lancamento encontrado = service.opterPorId(lancamento.getId()).get();
+
+        //Verificacao - o id do usuario vem da chave estrangeira
+        Assertions.assertThat(encontrado.getUsuario().getId()).isEqualTo(usuario.getId());
+        Assertions.assertThat(Hibernate.isInitialized(encontrado.getUsuario())).isFalse();
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusComOsComandosEsperados() {
+
+        //Execucao - mesmo fluxo do PUT /api/lancamentos/{id}/atualiza-status
+        Lancamento encontrado = service.opterPorId(lancamento.getId()).get();
+        service.atualizarStatus(encontrado, StatusLancamento.EFETIVADO);
+        entityManager.flush();
+
+        //Verificacao
+        //1 select do lancamento (o findById do atualizar usa o contexto de persistencia)
+        //1 upsert estornando o resumo PENDENTE e 1 criando o resumo EFETIVADO
+        //1 upsert da versao do usuario no estorno e outro no registro
+        //1 update do lancamento conferindo a versao
+        //O usuario fica como proxy: so o lancamento e carregado
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(6);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveLerOLancamentoUmaUnicaVezNoPut() {
+
+        //Cenario - mesmo fluxo do PUT /api/lancamentos/{id}
+        Lancamento alterado = LancamentoRepositoryTest.criarLancamento();
+        alterado.setId(lancamento.getId());
+        alterado.setUsuario(usuario);
+        alterado.setValor(BigDecimal.valueOf(25));
+
+        //Execucao
+        Optional<Lancamento> salvo = service.atualizar(alterado, usuario.getId());
+        entityManager.flush();
+
+        //Verificacao
+        Assertions.assertThat(salvo).isPresent();
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isEqualTo(1);
+        Assertions.assertThat(service.atualizar(alterado, usuario.getId() + 1)).isEmpty();
+
+    }
+
+    @Test
+    public void deveAtualizarOStatusPeloIdSemCarregarOLancamento() {
+
+        //Execucao - mesmo fluxo do PUT /api/lancamentos/{id}/atualiza-status
+        int atualizados = service.atualizarStatusPorId(lancamento.getId(), null, null, StatusLancamento.EFETIVADO);
+
+        //Verificacao
+        //1 select ... for update travando o lancamento e trazendo as colunas do resumo
+        //1 update do lancamento
+        //1 upsert estornando o resumo PENDENTE e 1 criando o resumo EFETIVADO
+        //1 upsert da versao do usuario
+        Assertions.assertThat(atualizados).isEqualTo(1);
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(5);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+
+        entityManager.clear();
+        Assertions.assertThat(entityManager.find(Lancamento.class, lancamento.getId()).getStatus())
+                .isEqualTo(StatusLancamento.EFETIVADO);
+
+    }
+
+    @Test
+    public void deveDeletarPeloIdSemCarregarOLancamento() {
+
+        //Execucao
+        int removidos = service.deletarPorId(lancamento.getId(), null, null);
+
+        //Verificacao
+        //1 select ... for update com as colunas do resumo, 1 delete, 1 upsert estornando o resumo
+        //e 1 da versao do usuario
+        Assertions.assertThat(removidos).isEqualTo(1);
+        Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(4);
+        Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+        Assertions.assertThat(entityManager.find(Lancamento.class, lancamento.getId())).isNull();
+
+    }
+
+    @Test
+    public void deveRetornarZeroAoAlterarOuDeletarUmIdInexistente() {
+
+        Assertions.assertThat(service.atualizarStatusPorId(-1L, null, null, StatusLancamento.EFETIVADO)).isZero();
+        Assertions.assertThat(service.deletarPorId(-1L, null, null)).isZero();
+
+    }
+
+    @Test
+    public void deveTratarComoInexistenteOLancamentoDeOutroUsuario() {
+
+        //Execucao e verificacao - mesmo com a versao certa, sem conflito de versao
+        Long outroUsuario = usuario.getId() + 1;
+        Assertions.assertThat(service.atualizarStatusPorId(lancamento.getId(), outroUsuario, lancamento.getVersao(), StatusLancamento.EFETIVADO)).isZero();
+        Assertions.assertThat(service.deletarPorId(lancamento.getId(), outroUsuario, lancamento.getVersao() + 1)).isZero();
+        Assertions.assertThat(service.deletarPorId(lancamento.getId(), usuario.getId(), lancamento.getVersao())).isEqualTo(1);
+
+    }
+
+    @Test
+    public void deveIncrementarAVersaoDosLancamentosDoUsuarioACadaEscrita() {
+
+        //Cenario
+        long antes = service.obterVersaoLancamentos(usuario.getId());
+
+        //Execucao
+        service.atualizarStatusPorId(lancamento.getId(), null, null, StatusLancamento.EFETIVADO);
+        service.deletarPorId(lancamento.getId(), null, null);
+
+        //Verificacao
+        Assertions.assertThat(service.obterVersaoLancamentos(usuario.getId())).isEqualTo(antes + 2);
+
+    }
+
+    @Test
+    public void deveRecusarAlteracaoComVersaoDesatualizada() {
+
+        //Execucao
+        Throwable erro = Assertions.catchThrowable(() ->
+                service.atualizarStatusPorId(lancamento.getId(), null, lancamento.getVersao() + 1, StatusLancamento.EFETIVADO));
+
+        //Verificacao
+        Assertions.assertThat(erro).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        Assertions.assertThat(service.atualizarStatusPorId(lancamento.getId(), null, lancamento.getVersao(), StatusLancamento.EFETIVADO))
+                .isEqualTo(1);
+        Assertions.assertThat(service.obterResumoPorId(lancamento.getId()).get().getVersao())
+                .isEqualTo(lancamento.getVersao() + 1);
+
+    }
+
+}
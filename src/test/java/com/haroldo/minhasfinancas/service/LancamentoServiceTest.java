@@ -1,26 +1,44 @@
 package com.haroldo.minhasfinancas.service;
 
+import com.haroldo.minhasfinancas.api.dto.LancamentoResumoDTO;
+import com.haroldo.minhasfinancas.api.dto.PaginaCursorDTO;
+import com.haroldo.minhasfinancas.api.dto.SaldoDTO;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
 import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
 import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.filter.CursorLancamento;
+import com.haroldo.minhasfinancas.model.filter.LancamentoFilter;
 import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
 import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
 import com.haroldo.minhasfinancas.service.impl.LancamentoServiceImpl;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
@@ -32,6 +50,12 @@ public class LancamentoServiceTest {
     @MockBean //Simular o comportamento do repository
     LancamentoRepository repository;
 
+    @MockBean
+    SaldoUsuarioService saldoUsuarioService;
+
+    @MockBean
+    BuscaDescricaoService buscaDescricaoService;
+
     @Test
     public void deveSalvarUmLancamento() {
 
@@ -53,6 +77,7 @@ public class LancamentoServiceTest {
         //Verificacao
         Assertions.assertThat(lancamento.getId()).isEqualTo(lancamentoSalvo.getId());
         Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        Mockito.verify(saldoUsuarioService).registrar(lancamentoSalvo);
 
     }
 
@@ -92,6 +117,29 @@ public class LancamentoServiceTest {
 
     }
 
+    @Test
+    public void deveEstornarOsValoresAnterioresDoSaldoAoAtualizar() {
+
+        //Cenario - valores que estao na base antes da atualizacao
+        Lancamento lancamentoAnterior = LancamentoRepositoryTest.criarLancamento();
+        lancamentoAnterior.setId(1L);
+        lancamentoAnterior.setValor(BigDecimal.valueOf(10));
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(lancamentoAnterior));
+
+        Lancamento lancamentoAtualizado = LancamentoRepositoryTest.criarLancamento();
+        lancamentoAtualizado.setId(1L);
+        lancamentoAtualizado.setValor(BigDecimal.valueOf(25));
+        Mockito.when(repository.save(lancamentoAtualizado)).thenReturn(lancamentoAtualizado);
+
+        //Execucao
+        service.atualizar(lancamentoAtualizado);
+
+        //Verificacao - estorna o valor anterior e registra o novo
+        Mockito.verify(saldoUsuarioService).estornar(Mockito.argThat(l -> l.getValor().compareTo(BigDecimal.valueOf(10)) == 0));
+        Mockito.verify(saldoUsuarioService).registrar(lancamentoAtualizado);
+
+    }
+
     @Test
     public void deveLancarErroAoTentarAtualizarUmLancamentoQueAindaNaoFoiSalvo() {
 
@@ -116,6 +164,7 @@ public class LancamentoServiceTest {
 
         //Verificacao
         Mockito.verify(repository).delete(lancamento);
+        Mockito.verify(saldoUsuarioService).estornar(lancamento);
     }
 
     @Test
@@ -139,17 +188,140 @@ public class LancamentoServiceTest {
         Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
         lancamento.setId(1L);
 
-        List<Lancamento> lista = Arrays.asList(lancamento);
-        Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+        LancamentoResumoDTO resumo = LancamentoResumoDTO.de(lancamento);
+        List<LancamentoResumoDTO> lista = Arrays.asList(resumo);
+        Mockito.when(repository.buscarResumos(Mockito.any(Specification.class), Mockito.any(Sort.class))).thenReturn(lista);
 
         //Execucao
-        List<Lancamento> resultado = service.buscar(lancamento);
+        List<LancamentoResumoDTO> resultado = service.buscar(LancamentoFilter.builder().idUsuario(1L).build());
 
         //Verificacao
         Assertions.assertThat(resultado)
                 .isNotEmpty()
                 .hasSize(1)
-                .contains(lancamento);
+                .contains(resumo);
+
+    }
+
+    @Test
+    public void deveLancarErroAoBuscarSemUsuario() {
+
+        //Execucao e verificacao
+        Assertions.assertThatThrownBy(() -> service.buscar(new LancamentoFilter()))
+                .isInstanceOf(RegraNegocioException.class)
+                .hasMessage("Informe um Usuário.");
+        Mockito.verify(repository, Mockito.never()).buscarResumos(Mockito.any(Specification.class), Mockito.any(Sort.class));
+
+    }
+
+    @Test
+    public void deveRetornarOProximoCursorQuandoHouverMaisRegistros() {
+
+        //Cenario - o repository devolve um registro a mais que o tamanho da pagina
+        Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+        primeiro.setId(1L);
+        Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+        segundo.setId(2L);
+
+        LancamentoResumoDTO primeiroResumo = LancamentoResumoDTO.de(primeiro);
+        Mockito.when(repository.buscarResumosLimitado(Mockito.any(Specification.class), Mockito.any(Sort.class), Mockito.eq(2)))
+                .thenReturn(Arrays.asList(primeiroResumo, LancamentoResumoDTO.de(segundo)));
+
+        //Execucao
+        PaginaCursorDTO<LancamentoResumoDTO> pagina = service.buscar(LancamentoFilter.builder().idUsuario(1L).build(), null, 1);
+
+        //Verificacao
+        Assertions.assertThat(pagina.getConteudo()).containsExactly(primeiroResumo);
+        Assertions.assertThat(pagina.isPossuiProximo()).isTrue();
+        Assertions.assertThat(CursorLancamento.decodificar(pagina.getProximoCursor()).getId()).isEqualTo(1L);
+
+    }
+
+    @Test
+    public void deveLancarErroAoBuscarPorCursorComTamanhoInvalido() {
+
+        //Execucao e verificacao
+        Assertions.assertThatThrownBy(() -> service.buscar(LancamentoFilter.builder().idUsuario(1L).build(), null, 0))
+                .isInstanceOf(RegraNegocioException.class);
+
+    }
+
+    @Test
+    public void deveOrdenarABuscaPaginadaDeFormaEstavel() {
+
+        //Cenario
+        LancamentoFilter filtro = LancamentoFilter.builder().idUsuario(1L).build();
+        Mockito.when(repository.buscarResumos(Mockito.any(Specification.class), Mockito.any(Pageable.class))).thenReturn(Page.empty());
+
+        //Execucao
+        service.buscar(filtro, PageRequest.of(0, 10));
+        service.buscar(filtro, PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "valor")));
+
+        //Verificacao - sem sort vale (ano, mes, id) e o id sempre desempata
+        ArgumentCaptor<Pageable> paginas = ArgumentCaptor.forClass(Pageable.class);
+        Mockito.verify(repository, Mockito.times(2)).buscarResumos(Mockito.any(Specification.class), paginas.capture());
+        Assertions.assertThat(paginas.getAllValues().get(0).getSort()).isEqualTo(Sort.by("ano", "mes", "id"));
+        Assertions.assertThat(paginas.getAllValues().get(1).getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "valor").and(Sort.by("id")));
+        Assertions.assertThat(paginas.getAllValues().get(1).getPageNumber()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void naoDeveOrdenarPorCamposForaDoLancamento() {
+
+        LancamentoFilter filtro = LancamentoFilter.builder().idUsuario(1L).build();
+
+        Assertions.assertThatThrownBy(() -> service.buscar(filtro, PageRequest.of(0, 10, Sort.by("usuario.senha"))))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Não é possível ordenar por usuario.senha.");
+        Assertions.assertThatThrownBy(() -> service.buscar(filtro, PageRequest.of(0, 10, Sort.by("inexistente"))))
+                .isInstanceOf(RegraNegocioException.class);
+        Mockito.verify(repository, Mockito.never()).buscarResumos(Mockito.any(Specification.class), Mockito.any(Pageable.class));
+
+    }
+
+    @Test
+    public void deveBuscarPorDescricaoMantendoAOrdemDeRelevancia() {
+
+        //Cenario
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1L);
+        LancamentoResumoDTO primeiro = LancamentoResumoDTO.de(lancamento);
+        lancamento.setId(2L);
+        LancamentoResumoDTO segundo = LancamentoResumoDTO.de(lancamento);
+
+        PageRequest pagina = PageRequest.of(0, 10);
+        Mockito.when(buscaDescricaoService.buscarIds(1L, "mercado", pagina))
+                .thenReturn(new PageImpl<>(Arrays.asList(2L, 1L), pagina, 2));
+        Mockito.when(repository.findResumosByIdIn(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(primeiro, segundo));
+
+        //Execucao
+        Page<LancamentoResumoDTO> resultado = service.buscarPorDescricao(1L, " mercado ", pagina);
+
+        //Verificacao
+        Assertions.assertThat(resultado.getContent()).containsExactly(segundo, primeiro);
+        Assertions.assertThat(resultado.getTotalElements()).isEqualTo(2);
+
+    }
+
+    @Test
+    public void deveIgnorarNaBuscaPorDescricaoOsLancamentosExcluidosAposABuscaDosIds() {
+
+        //Cenario - o lancamento 2 foi excluido entre a busca dos ids e a consulta
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setId(1L);
+        LancamentoResumoDTO primeiro = LancamentoResumoDTO.de(lancamento);
+
+        PageRequest pagina = PageRequest.of(0, 10);
+        Mockito.when(buscaDescricaoService.buscarIds(1L, "mercado", pagina))
+                .thenReturn(new PageImpl<>(Arrays.asList(2L, 1L), pagina, 2));
+        Mockito.when(repository.findResumosByIdIn(Arrays.asList(2L, 1L))).thenReturn(Collections.singletonList(primeiro));
+
+        //Execucao
+        Page<LancamentoResumoDTO> resultado = service.buscarPorDescricao(1L, "mercado", pagina);
+
+        //Verificacao
+        Assertions.assertThat(resultado.getContent()).containsExactly(primeiro);
+        Assertions.assertThat(resultado.getTotalElements()).isEqualTo(1);
 
     }
 
@@ -177,6 +349,83 @@ public class LancamentoServiceTest {
         Mockito.verify(service).atualizar(lancamentoSalvo);
     }
 
+    @Test
+    public void deveAtualizarOStatusEmLoteEMoverOsTotaisDoSaldo() {
+
+        //Cenario
+        List<SaldoUsuario> totais = Arrays.asList(
+                new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(30), 3L),
+                new SaldoUsuario(1L, 2019, 2, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, BigDecimal.TEN, 1L));
+        Mockito.when(repository.bloquearParaSaldo(Mockito.any(Specification.class), Mockito.anyInt())).thenReturn(Arrays.asList(
+                new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(10), 1L),
+                new SaldoUsuario(1L, 2019, 2, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, BigDecimal.TEN, 1L),
+                new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(5), 1L),
+                new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(15), 1L)));
+        Mockito.when(repository.atualizarStatus(Mockito.any(Specification.class), Mockito.eq(StatusLancamento.EFETIVADO))).thenReturn(4);
+
+        //Execucao
+        int atualizados = service.atualizarStatus(1L, Arrays.asList(1L, 2L, 3L, 4L, 5L), StatusLancamento.EFETIVADO);
+
+        //Verificacao
+        Assertions.assertThat(atualizados).isEqualTo(4);
+        Mockito.verify(saldoUsuarioService).alterarStatus(1L, totais, StatusLancamento.EFETIVADO);
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+        Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Specification.class));
+
+    }
+
+    @Test
+    public void naoDeveAlterarOSaldoQuandoOUpdateNaoCorrespondeAosTotais() {
+
+        //Cenario: outra transacao fez um lancamento deixar de atender o filtro depois da trava
+        Mockito.when(repository.bloquearParaSaldo(Mockito.any(Specification.class), Mockito.anyInt())).thenReturn(Stream.generate(() ->
+                new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 1L))
+                .limit(3).collect(Collectors.toList()));
+        Mockito.when(repository.atualizarStatus(Mockito.any(Specification.class), Mockito.eq(StatusLancamento.EFETIVADO))).thenReturn(2);
+
+        //Execucao
+        Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(
+                LancamentoFilter.builder().idUsuario(1L).ano(2019).build(), StatusLancamento.EFETIVADO));
+
+        //Verificacao
+        Assertions.assertThat(erro).isInstanceOf(ConcurrencyFailureException.class);
+        Mockito.verify(saldoUsuarioService, Mockito.never()).alterarStatus(Mockito.any(), Mockito.any(), Mockito.any());
+
+    }
+
+    @Test
+    public void naoDeveAtualizarOStatusPeloFiltroQuandoAlcancaMaisLancamentosQueOLimite() {
+
+        //Cenario
+        SaldoUsuario lancamento = new SaldoUsuario(1L, 2019, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 1L);
+        Mockito.when(repository.bloquearParaSaldo(Mockito.any(Specification.class), Mockito.eq(LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE_STATUS + 1)))
+                .thenReturn(Collections.nCopies(LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE_STATUS + 1, lancamento));
+
+        //Execucao
+        Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(
+                LancamentoFilter.builder().idUsuario(1L).ano(2019).build(), StatusLancamento.EFETIVADO));
+
+        //Verificacao
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+                .hasMessage("O filtro alcança mais de " + LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE_STATUS + " lançamentos, restrinja o filtro.");
+        Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.any(Specification.class), Mockito.any());
+
+    }
+
+    @Test
+    public void naoDeveAtualizarOStatusEmLoteSemUsuarioOuAcimaDoLimite() {
+
+        List<Long> ids = LongStream.rangeClosed(1, LancamentoServiceImpl.TAMANHO_MAXIMO_LOTE_STATUS + 1)
+                .boxed().collect(Collectors.toList());
+
+        Assertions.assertThatThrownBy(() -> service.atualizarStatus(null, Arrays.asList(1L), StatusLancamento.EFETIVADO))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Usuário.");
+        Assertions.assertThatThrownBy(() -> service.atualizarStatus(1L, ids, StatusLancamento.EFETIVADO))
+                .isInstanceOf(RegraNegocioException.class);
+        Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.any(), Mockito.any());
+
+    }
+
     @Test
     public void deveObterUmLancamentoPorID() {
 
@@ -217,6 +466,23 @@ public class LancamentoServiceTest {
 
     }
 
+    @Test
+    public void deveObterOSaldoDoUsuarioEmUmaUnicaConsulta() {
+
+        //Cenario
+        Long idUsuario = 1L;
+        Mockito.when(saldoUsuarioService.obterSaldoPorUsuario(idUsuario))
+                .thenReturn(Optional.of(new SaldoDTO(BigDecimal.valueOf(100), BigDecimal.valueOf(30))));
+
+        //Execucao
+        BigDecimal saldo = service.obterSaldoPorUsuario(idUsuario);
+
+        //Verificacao
+        Assertions.assertThat(saldo).isEqualByComparingTo("70");
+        Mockito.verify(saldoUsuarioService, Mockito.times(1)).obterSaldoPorUsuario(idUsuario);
+
+    }
+
     @Test
     public void deveLancarErrosAoValidarUmLancamento() {
         Lancamento lancamento = new Lancamento();
@@ -0,0 +1,170 @@
+package com.haroldo.minhasfinancas.service;
+
+import com.haroldo.minhasfinancas.api.dto.DivergenciaSaldoDTO;
+import com.haroldo.minhasfinancas.model.entity.Lancamento;
+import com.haroldo.minhasfinancas.model.entity.SaldoUsuario;
+import com.haroldo.minhasfinancas.model.entity.Usuario;
+import com.haroldo.minhasfinancas.model.enums.StatusLancamento;
+import com.haroldo.minhasfinancas.model.enums.TipoLancamento;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepository;
+import com.haroldo.minhasfinancas.model.repository.LancamentoRepositoryTest;
+import com.haroldo.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.haroldo.minhasfinancas.model.repository.VersaoUsuarioRepository;
+import com.haroldo.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+    @SpyBean
+    SaldoUsuarioServiceImpl service;
+
+    @MockBean
+    SaldoUsuarioRepository repository;
+
+    @MockBean
+    LancamentoRepository lancamentoRepository;
+
+    @MockBean
+    VersaoUsuarioRepository versaoUsuarioRepository;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    private SaldoUsuario criarSaldo(TipoLancamento tipo, BigDecimal valor, Long quantidade) {
+        return new SaldoUsuario(1L, 2022, 1, tipo, StatusLancamento.PENDENTE, valor, quantidade);
+    }
+
+    @Test
+    public void deveAplicarODeltaEIncrementarAVersaoComUpserts() {
+
+        //Cenario
+        Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+        lancamento.setUsuario(Usuario.builder().id(1L).build());
+
+        //Execucao
+        service.registrar(lancamento);
+
+        //Verificacao - sem consultar se a linha existe e sem insert separado
+        Mockito.verify(repository).aplicarDelta(1L, lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(),
+                lancamento.getStatus(), lancamento.getValor(), 1L);
+        Mockito.verify(versaoUsuarioRepository).incrementar(1L);
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(versaoUsuarioRepository, Mockito.never()).save(Mockito.any());
+
+    }
+
+    @Test
+    public void deveMoverOsTotaisParaONovoStatus() {
+
+        //Execucao
+        service.alterarStatus(1L, Arrays.asList(criarSaldo(TipoLancamento.RECEITA, BigDecimal.TEN, 2L)), StatusLancamento.EFETIVADO);
+
+        //Verificacao
+        Mockito.verify(repository).aplicarDelta(1L, 2022, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE,
+                BigDecimal.TEN.negate(), -2L);
+        Mockito.verify(repository).aplicarDelta(1L, 2022, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO,
+                BigDecimal.TEN, 2L);
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+
+    }
+
+    @Test
+    public void naoDeveReportarDivergenciaQuandoOResumoEstaCorreto() {
+
+        //Cenario
+        usuariosDaReconciliacao(1L);
+        Mockito.when(repository.buscarPorUsuarios(Arrays.asList(1L))).thenReturn(Arrays.asList(criarSaldo(TipoLancamento.RECEITA, BigDecimal.TEN, 2L)));
+        Mockito.when(lancamentoRepository.calcularSaldosDosUsuarios(Arrays.asList(1L)))
+                .thenReturn(Arrays.asList(criarSaldo(TipoLancamento.RECEITA, BigDecimal.TEN, 2L)));
+
+        //Execucao
+        List<DivergenciaSaldoDTO> divergencias = service.reconciliar();
+
+        //Verificacao
+        Assertions.assertThat(divergencias).isEmpty();
+        Mockito.verify(repository).bloquearLancamentos();
+        Mockito.verify(repository, Mockito.never()).aplicarDelta(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(repository, Mockito.never()).findAll();
+
+    }
+
+    @Test
+    public void deveCorrigirPorDeltaEReportarAsDivergenciasDoResumo() {
+
+        //Cenario - receita com valor errado e despesa que nao foi registrada
+        usuariosDaReconciliacao(1L);
+        Mockito.when(repository.buscarPorUsuarios(Arrays.asList(1L))).thenReturn(Arrays.asList(criarSaldo(TipoLancamento.RECEITA, BigDecimal.ONE, 1L)));
+        Mockito.when(lancamentoRepository.calcularSaldosDosUsuarios(Arrays.asList(1L))).thenReturn(Arrays.asList(
+                criarSaldo(TipoLancamento.RECEITA, BigDecimal.TEN, 2L), criarSaldo(TipoLancamento.DESPESA, BigDecimal.valueOf(5), 1L)));
+
+        //Execucao
+        List<DivergenciaSaldoDTO> divergencias = service.reconciliar();
+
+        //Verificacao - a diferenca e somada ao que estiver gravado, sem sobrescrever deltas de outras transacoes
+        Assertions.assertThat(divergencias).hasSize(2);
+        Mockito.verify(repository).aplicarDelta(1L, 2022, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(9), 1L);
+        Mockito.verify(repository).aplicarDelta(1L, 2022, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(5), 1L);
+        Mockito.verify(versaoUsuarioRepository).incrementar(1L);
+
+    }
+
+    @Test
+    public void deveRemoverLinhasDoResumoSemLancamentos() {
+
+        //Cenario
+        SaldoUsuario sobra = criarSaldo(TipoLancamento.RECEITA, BigDecimal.TEN, 1L);
+        sobra.setId(7L);
+        usuariosDaReconciliacao(1L);
+        Mockito.when(repository.buscarPorUsuarios(Arrays.asList(1L))).thenReturn(Arrays.asList(sobra));
+        Mockito.when(lancamentoRepository.calcularSaldosDosUsuarios(Arrays.asList(1L))).thenReturn(Collections.emptyList());
+
+        //Execucao
+        List<DivergenciaSaldoDTO> divergencias = service.reconciliar();
+
+        //Verificacao
+        Assertions.assertThat(divergencias).hasSize(1);
+        Mockito.verify(repository).deleteAllByIdInBatch(Arrays.asList(7L));
+
+    }
+
+    @Test
+    public void deveReconciliarEmBlocosDeUsuarios() {
+
+        //Cenario
+        Mockito.when(repository.buscarIdsUsuarios(Mockito.eq(0L), Mockito.any())).thenReturn(Arrays.asList(1L, 2L));
+        Mockito.when(repository.buscarIdsUsuarios(Mockito.eq(2L), Mockito.any())).thenReturn(Arrays.asList(5L));
+        Mockito.when(repository.buscarIdsUsuarios(Mockito.eq(5L), Mockito.any())).thenReturn(Collections.emptyList());
+
+        //Execucao
+        service.reconciliar();
+
+        //Verificacao - uma transacao e um bloqueio por bloco
+        Mockito.verify(lancamentoRepository).calcularSaldosDosUsuarios(Arrays.asList(1L, 2L));
+        Mockito.verify(lancamentoRepository).calcularSaldosDosUsuarios(Arrays.asList(5L));
+        Mockito.verify(repository, Mockito.times(2)).bloquearLancamentos();
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(Mockito.any());
+
+    }
+
+    private void usuariosDaReconciliacao(Long... ids) {
+        Mockito.when(repository.buscarIdsUsuarios(Mockito.eq(0L), Mockito.any())).thenReturn(Arrays.asList(ids));
+        Mockito.when(repository.buscarIdsUsuarios(Mockito.eq(ids[ids.length - 1]), Mockito.any())).thenReturn(Collections.emptyList());
+    }
+
+}
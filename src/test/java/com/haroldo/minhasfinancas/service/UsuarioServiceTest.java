@@ -1,5 +1,8 @@
 package com.haroldo.minhasfinancas.service;
 
+import com.haroldo.minhasfinancas.autenticacao.CodificadorSenhaBCrypt;
+import com.haroldo.minhasfinancas.autenticacao.VerificacaoSenha;
+import com.haroldo.minhasfinancas.config.CacheConfig;
 import com.haroldo.minhasfinancas.exception.ErroAutenticacaoException;
 import com.haroldo.minhasfinancas.exception.RegraNegocioException;
 import com.haroldo.minhasfinancas.model.entity.Usuario;
@@ -9,15 +12,23 @@ import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @ActiveProfiles("test")
 @RunWith(SpringRunner.class)
+@ContextConfiguration(classes = UsuarioServiceTest.Config.class)
 public class UsuarioServiceTest {
 
     //Testes unitarios com mock e spy
@@ -27,6 +38,25 @@ public class UsuarioServiceTest {
     @MockBean
     UsuarioRepository repository;
 
+    @Autowired
+    CacheManager cacheManager;
+
+    //BCrypt real com o custo minimo, executado na propria thread do teste. Sem @Configuration para nao ser
+    //encontrada pela varredura de componentes da aplicacao, que tambem ve as classes de teste nos benchmarks
+    static class Config {
+
+        @Bean
+        VerificacaoSenha verificacaoSenha() {
+            return new VerificacaoSenha(new CodificadorSenhaBCrypt(4), Runnable::run, Duration.ofSeconds(5));
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.USUARIOS);
+        }
+
+    }
+
     @Test(expected = Test.None.class)
     public void deveSalvarUsuario() {
 
@@ -142,4 +172,81 @@ public class UsuarioServiceTest {
         service.validarEmail("usuario@email.com");
 
     }
+
+    @Test
+    public void deveGravarOHashDaSenha() {
+
+        //Cenario
+        Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+        Mockito.when(repository.save(Mockito.any(Usuario.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        //Acao
+        Usuario usuario = service.salvarUsuario(Usuario.builder().email("email@email.com").senha("senha").build());
+
+        //Verificacao
+        Assertions.assertThat(usuario.getSenha()).startsWith("$2a$04$").isNotEqualTo("senha");
+        Assertions.assertThat(service.autenticar(mockarEmail(usuario), "senha")).isSameAs(usuario);
+        Mockito.verify(repository, Mockito.times(1)).save(usuario);
+
+    }
+
+    @Test
+    public void deveRecodificarNoLoginASenhaGravadaEmTextoOuComOutroCusto() {
+
+        //Cenario
+        Usuario emTexto = Usuario.builder().id(1L).email("texto@email.com").senha("senha").build();
+        Usuario outroCusto = Usuario.builder().id(2L).email("custo@email.com").senha(new CodificadorSenhaBCrypt(5).codificar("senha")).build();
+        Mockito.when(repository.findByEmail(emTexto.getEmail())).thenReturn(Optional.of(emTexto));
+        Mockito.when(repository.findByEmail(outroCusto.getEmail())).thenReturn(Optional.of(outroCusto));
+
+        //Acao
+        service.autenticar(emTexto.getEmail(), "senha");
+        service.autenticar(outroCusto.getEmail(), "senha");
+
+        //Verificacao
+        Assertions.assertThat(emTexto.getSenha()).startsWith("$2a$04$");
+        Assertions.assertThat(outroCusto.getSenha()).startsWith("$2a$04$");
+        Mockito.verify(repository).save(emTexto);
+        Mockito.verify(repository).save(outroCusto);
+
+    }
+
+    @Test
+    public void deveRemoverDoCacheOUsuarioComASenhaRecodificada() {
+
+        //Cenario
+        Usuario emTexto = Usuario.builder().id(1L).email("texto@email.com").senha("senha").build();
+        Mockito.when(repository.findByEmail(emTexto.getEmail())).thenReturn(Optional.of(emTexto));
+        Cache usuarios = cacheManager.getCache(CacheConfig.USUARIOS);
+        usuarios.put(emTexto.getId(), Optional.of(Usuario.builder().id(1L).senha("senha").build()));
+
+        //Acao
+        service.autenticar(emTexto.getEmail(), "senha");
+
+        //Verificacao
+        Assertions.assertThat(usuarios.get(emTexto.getId())).isNull();
+
+    }
+
+    @Test
+    public void deveLancarErroQuandoSenhaNaoBaterComOHash() {
+
+        //Cenario
+        Usuario usuario = Usuario.builder().id(1L).email("email@email.com").senha(new CodificadorSenhaBCrypt(4).codificar("senha")).build();
+        Mockito.when(repository.findByEmail(usuario.getEmail())).thenReturn(Optional.of(usuario));
+
+        //Acao
+        Throwable exception = Assertions.catchThrowable(() -> service.autenticar(usuario.getEmail(), "123"));
+
+        //Verificacao
+        Assertions.assertThat(exception).isInstanceOf(ErroAutenticacaoException.class).hasMessage("Senha inválida.");
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Usuario.class));
+
+    }
+
+    private String mockarEmail(Usuario usuario) {
+        Mockito.when(repository.findByEmail(usuario.getEmail())).thenReturn(Optional.of(usuario));
+        return usuario.getEmail();
+    }
+
 }